@@ -0,0 +1,96 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.LexerAtnManager;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark the end-to-end throughput of {@link Antlr4Parser#parse(String, String)} against the bundled corpora.
+ * Run with {@code gradlew jmh -Pjmh.includes=Antlr4ParserBenchmark}, the gc profiler reports the allocation rate.
+ * <ul>
+ *     <li>{@code warm}: the DFA cache is populated by parsing the whole corpus before measuring</li>
+ *     <li>{@code cold}: the DFA cache is cleared before parsing every source file</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class Antlr4ParserBenchmark {
+
+    @Benchmark
+    public ModuleNode warm(WarmState state, ThroughputCounters counters) {
+        return parse(state, counters);
+    }
+
+    @Benchmark
+    public ModuleNode cold(ColdState state, ThroughputCounters counters) {
+        return parse(state, counters);
+    }
+
+    private static ModuleNode parse(ParserState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        return state.parser.parse(source.getName(), source.getText());
+    }
+
+    @State(Scope.Thread)
+    public static class ParserState extends CorpusState {
+        final Antlr4Parser parser = new Antlr4Parser();
+
+        /**
+         * Drop the sources which can not be parsed, which populates the DFA cache too
+         */
+        @Override
+        protected void prepare() {
+            retain(source -> null != parser.parse(source.getName(), source.getText()));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WarmState extends ParserState {
+    }
+
+    @State(Scope.Thread)
+    public static class ColdState extends ParserState {
+        @Setup(Level.Invocation)
+        public void clearDfaCache() {
+            LexerAtnManager.INSTANCE.clearDfaCache();
+            ParserAtnManager.INSTANCE.clearDfaCache();
+        }
+    }
+}
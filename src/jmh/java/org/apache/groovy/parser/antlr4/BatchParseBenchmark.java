@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark how {@code AbstractParser.parseAll} scales with the parallelism of the fork join pool, e.g.
+ * {@code gradlew jmh -Pjmh.includes=BatchParseBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BatchParseBenchmark {
+    @Benchmark
+    public int parseAll(BatchState state, ThroughputCounters counters) {
+        Map<Path, CompletableFuture<ModuleNode>> result = state.parser.parseAll(state.paths, state.pool);
+        CompletableFuture.allOf(result.values().toArray(new CompletableFuture[0])).join();
+
+        for (Corpus.Source source : state.getSourceList()) {
+            counters.record(source);
+        }
+
+        return result.size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class BatchState extends CorpusState {
+        @Param({"1", "2", "4", "8", "16", "32", "64"})
+        public int parallelism;
+
+        Antlr4Parser parser;
+        ForkJoinPool pool;
+        List<Path> paths;
+        private Path sourceDir;
+
+        @Override
+        protected void prepare() {
+            parser = new Antlr4Parser();
+            pool = new ForkJoinPool(parallelism);
+            paths = new ArrayList<>();
+
+            try {
+                sourceDir = Files.createTempDirectory("batch-parse-benchmark");
+                for (Corpus.Source source : getSourceList()) {
+                    Path path = sourceDir.resolve(source.getName());
+                    Files.createDirectories(path.getParent());
+                    Files.write(path, source.getText().getBytes(StandardCharsets.UTF_8));
+                    paths.add(path);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @TearDown
+        public void shutdown() throws IOException {
+            pool.shutdownNow();
+
+            try (Stream<Path> pathStream = Files.walk(sourceDir)) {
+                pathStream.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
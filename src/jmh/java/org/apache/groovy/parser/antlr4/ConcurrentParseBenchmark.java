@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark how parsing scales across thread counts while the DFA cache is renewed
+ * every {@code groovy.antlr4.cache.threshold} parses, e.g.
+ * {@code gradlew jmh -Pjmh.includes=ConcurrentParseBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ConcurrentParseBenchmark {
+    private static final int BATCH_SIZE = 256;
+
+    @Benchmark
+    public int parse(ConcurrentState state, ThroughputCounters counters) throws InterruptedException, ExecutionException {
+        List<Future<?>> futureList = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Corpus.Source source = state.next();
+            counters.record(source);
+
+            futureList.add(state.executorService.submit(() -> new Antlr4Parser().parse(source.getName(), source.getText())));
+        }
+
+        for (Future<?> future : futureList) {
+            future.get();
+        }
+
+        return futureList.size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class ConcurrentState extends CorpusState {
+        @Param({"1", "2", "4", "8", "16", "32", "64"})
+        public int threads;
+
+        ExecutorService executorService;
+
+        @Override
+        protected void prepare() {
+            executorService = Executors.newFixedThreadPool(threads);
+        }
+
+        @TearDown
+        public void shutdown() {
+            executorService.shutdownNow();
+        }
+    }
+}
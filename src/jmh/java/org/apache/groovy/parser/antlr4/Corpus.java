@@ -0,0 +1,117 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * The source corpora zipped under src/test/resources, which are shared by the benchmarks
+ */
+public enum Corpus {
+    GROOVY_2_5_0("groovy-2.5.0/groovy-2.5.0-SNAPSHOT-20160921-allsources.zip"),
+    GRAILS_3_2_0("grails-3.2.0/grails-3.2.0-allsources.zip"),
+    GRADLE_3_1("gradle-3.1/gradle-3.1-allsources.zip"),
+    SPOCK_1_1_RC2("spock-spock-1.1-rc-2/spock-spock-1.1-rc-2-allsources.zip"),
+    GEB_1_0("geb-1.0/geb-1.0-allsources.zip");
+
+    private static final String RESOURCES_PATH = System.getProperty("groovy.parser.jmh.resources", "src/test/resources");
+
+    private final String zipPath;
+
+    Corpus(String zipPath) {
+        this.zipPath = zipPath;
+    }
+
+    /**
+     * Read all the groovy sources(i.e. *.groovy and *.gradle) of the corpus into memory
+     */
+    public List<Source> load() {
+        File zip = new File(RESOURCES_PATH, zipPath);
+        if (!zip.exists()) {
+            throw new IllegalStateException(zip.getAbsolutePath() + " does not exist.");
+        }
+
+        List<Source> sourceList = new ArrayList<>();
+        try (ZipFile zf = new ZipFile(zip)) {
+            for (Enumeration<? extends ZipEntry> entries = zf.entries(); entries.hasMoreElements(); ) {
+                ZipEntry entry = entries.nextElement();
+                String entryName = entry.getName();
+                if (entry.isDirectory() || !(entryName.endsWith(".groovy") || entryName.endsWith(".gradle"))) {
+                    continue;
+                }
+
+                try (InputStream is = zf.getInputStream(entry)) {
+                    sourceList.add(new Source(zip.getName() + "!" + entryName, readFully(is)));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + zip, e);
+        }
+
+        return Collections.unmodifiableList(sourceList);
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        byte[] buffer = new byte[8192];
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        for (int n; (n = is.read(buffer)) != -1; ) {
+            baos.write(buffer, 0, n);
+        }
+
+        return baos.toByteArray();
+    }
+
+    /**
+     * A source file of the corpus
+     */
+    public static class Source {
+        private final String name;
+        private final String text;
+        private final int byteCount;
+
+        Source(String name, byte[] bytes) {
+            this.name = name;
+            this.text = new String(bytes, StandardCharsets.UTF_8);
+            this.byteCount = bytes.length;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getByteCount() {
+            return byteCount;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Iterate the sources of the specified corpus one by one, so that every benchmark invocation handles one source file
+ */
+@State(Scope.Thread)
+public class CorpusState {
+    @Param({"GROOVY_2_5_0", "GRAILS_3_2_0", "GRADLE_3_1", "SPOCK_1_1_RC2", "GEB_1_0"})
+    public Corpus corpus;
+
+    private List<Corpus.Source> sourceList;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceList = corpus.load();
+        cursor = 0;
+
+        prepare();
+    }
+
+    /**
+     * A hook for sub-classes to prepare the loaded sources before measuring
+     */
+    protected void prepare() {}
+
+    /**
+     * Keep the sources accepted by the filter only, e.g. drop the sources which the parser fails to parse
+     */
+    protected void retain(Predicate<Corpus.Source> filter) {
+        sourceList = sourceList.stream().filter(filter).collect(Collectors.toList());
+        if (sourceList.isEmpty()) {
+            throw new IllegalStateException("No source of " + corpus + " is available");
+        }
+    }
+
+    public List<Corpus.Source> getSourceList() {
+        return sourceList;
+    }
+
+    public Corpus.Source next() {
+        Corpus.Source source = sourceList.get(cursor);
+        cursor = (cursor + 1) % sourceList.size();
+
+        return source;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lex the code full of GStrings and multi-line comments, which stresses the predicates
+ * {@link SemanticPredicates#isFollowedByJavaLetterInGString} and {@link SemanticPredicates#isFollowedByWhiteSpaces}, e.g.
+ * {@code gradlew jmh -Pjmh.includes=GStringLexerBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class GStringLexerBenchmark {
+    @Benchmark
+    public long tokenize(GStringState state) {
+        long[] checksum = new long[1];
+        new GroovyTokenizer(state.text, "GStrings.groovy")
+                .tokenize((type, channel, startIndex, stopIndex, line, column) -> checksum[0] += type + stopIndex);
+
+        return checksum[0];
+    }
+
+    @State(Scope.Thread)
+    public static class GStringState {
+        String text;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 2000; i++) {
+                sb.append("/* comment ").append(i).append(" */   \n");
+                sb.append("def s").append(i).append(" = \"$name.first $name.last: ${count * ").append(i).append("} $ $\u65e5\u672c items\"\n");
+                sb.append("def r").append(i).append(" = /${prefix}-$suffix/ + $/$path/$file/$\n");
+                sb.append("log.info \"\"\"$user.id\n    $user.name ${user.roles.join(',')}\"\"\"\n");
+            }
+
+            text = sb.toString();
+        }
+    }
+}
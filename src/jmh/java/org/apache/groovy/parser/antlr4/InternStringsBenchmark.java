@@ -0,0 +1,112 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the heap retained by the module nodes of a whole corpus with and without {@link AstBuilder#INTERN_STRINGS},
+ * which is reported as the {@code retainedBytes} counter, e.g.
+ * {@code gradlew jmh -Pjmh.includes=InternStringsBenchmark}
+ *
+ * The auxiliary counters are not reported in the single shot mode, so every iteration is as short as possible instead,
+ * i.e. parses the corpus exactly once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+public class InternStringsBenchmark {
+    @Benchmark
+    public int parseAll(InternStringsState state, RetainedHeap retainedHeap) {
+        long before = retainedHeap.usedHeap();
+
+        // a new parser per batch, so the pool of the previous iteration is not reused
+        Antlr4Parser parser = new Antlr4Parser(state.createConfiguration());
+        List<ModuleNode> moduleNodeList = new ArrayList<>();
+        for (Corpus.Source source : state.getSourceList()) {
+            moduleNodeList.add(parser.parse(source.getName(), source.getText()));
+        }
+
+        retainedHeap.retainedBytes += retainedHeap.usedHeap() - before;
+
+        return moduleNodeList.size();
+    }
+
+    @State(Scope.Benchmark)
+    public static class InternStringsState extends CorpusState {
+        @Param({"false", "true"})
+        public boolean internStrings;
+
+        CompilerConfiguration createConfiguration() {
+            CompilerConfiguration configuration = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
+            configuration.setOptimizationOptions(new HashMap<>(Collections.singletonMap(AstBuilder.INTERN_STRINGS, internStrings)));
+
+            return configuration;
+        }
+
+        @Override
+        protected void prepare() {
+            Antlr4Parser parser = new Antlr4Parser();
+            retain(source -> null != parser.parse(source.getName(), source.getText()));
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RetainedHeap {
+        public long retainedBytes;
+
+        private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            retainedBytes = 0;
+        }
+
+        long usedHeap() {
+            System.gc();
+            return memoryMXBean.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
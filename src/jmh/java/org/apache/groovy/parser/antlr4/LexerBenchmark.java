@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.Token;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measure the cost of the lexer alone, i.e. the regex checks of slashes, the paren tracking and the other actions of
+ * {@link GroovyLexer}, which shows up most on the brace-heavy DSL code of the gradle and grails corpora, e.g.
+ * {@code gradlew jmh -Pjmh.includes=LexerBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LexerBenchmark {
+    @Benchmark
+    public long lex(LexingState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        GroovyLangLexer lexer = new GroovyLangLexer(StringCharStream.create(source.getText(), source.getName()));
+        long checksum = 0;
+        for (Token token = lexer.nextToken(); Token.EOF != token.getType(); token = lexer.nextToken()) {
+            checksum += token.getType() + token.getChannel();
+        }
+
+        return checksum;
+    }
+
+    @State(Scope.Thread)
+    public static class LexingState extends CorpusState {
+        @Override
+        protected void prepare() {
+            retain(source -> {
+                try {
+                    lex(source);
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            });
+        }
+
+        private static void lex(Corpus.Source source) {
+            GroovyLangLexer lexer = new GroovyLangLexer(StringCharStream.create(source.getText(), source.getName()));
+            while (Token.EOF != lexer.nextToken().getType()) {
+                // lex all the tokens
+            }
+        }
+    }
+}
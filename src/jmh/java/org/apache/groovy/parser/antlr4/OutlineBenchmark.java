@@ -0,0 +1,75 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare full parsing with the outline modes, i.e. {@link AstBuilder#SIGNATURES_ONLY} and {@link AstBuilder#DECLARATIONS_ONLY}, e.g.
+ * {@code gradlew jmh -Pjmh.includes=OutlineBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class OutlineBenchmark {
+    @Benchmark
+    public ModuleNode parse(OutlineState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        return state.parser.parse(source.getName(), source.getText());
+    }
+
+    @State(Scope.Thread)
+    public static class OutlineState extends CorpusState {
+        @Param({"full", AstBuilder.SIGNATURES_ONLY, AstBuilder.DECLARATIONS_ONLY})
+        public String mode;
+
+        Antlr4Parser parser;
+
+        @Override
+        protected void prepare() {
+            CompilerConfiguration configuration = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
+            if (!"full".equals(mode)) {
+                configuration.setOptimizationOptions(new HashMap<>(Collections.singletonMap(mode, Boolean.TRUE)));
+            }
+
+            parser = new Antlr4Parser(configuration);
+            retain(source -> null != parser.parse(source.getName(), source.getText()));
+        }
+    }
+}
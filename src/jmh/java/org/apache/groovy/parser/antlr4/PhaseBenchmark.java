@@ -0,0 +1,175 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import groovy.lang.GroovyClassLoader;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.groovy.parser.antlr4.GroovyParser.GroovyParserRuleContext;
+
+/**
+ * Benchmark the phases of {@link AstBuilder} separately against the bundled corpora(the DFA cache is warm):
+ * <ul>
+ *     <li>{@code lex}: produce all tokens by {@link GroovyLangLexer} only</li>
+ *     <li>{@code buildCstSll}: build the CST in SLL mode</li>
+ *     <li>{@code buildCstLl}: build the CST in LL mode</li>
+ *     <li>{@code visit}: build the {@code ModuleNode} from a prepared CST</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PhaseBenchmark {
+
+    @Benchmark
+    public int lex(LexerState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        return lex(source);
+    }
+
+    @Benchmark
+    public GroovyParserRuleContext buildCstSll(SllState state, ThroughputCounters counters) {
+        counters.record(state.source);
+
+        return state.astBuilder.buildCST(PredictionMode.SLL);
+    }
+
+    @Benchmark
+    public GroovyParserRuleContext buildCstLl(LlState state, ThroughputCounters counters) {
+        counters.record(state.source);
+
+        return state.astBuilder.buildCST(PredictionMode.LL);
+    }
+
+    @Benchmark
+    public Object visit(VisitState state, ThroughputCounters counters) {
+        counters.record(state.source);
+
+        return state.astBuilder.visit(state.cst);
+    }
+
+    private static int lex(Corpus.Source source) {
+        GroovyLangLexer lexer = new GroovyLangLexer(StringCharStream.create(source.getText(), source.getName()));
+
+        int tokenCount = 0;
+        while (Token.EOF != lexer.nextToken().getType()) {
+            tokenCount++;
+        }
+
+        return tokenCount;
+    }
+
+    private static boolean succeeds(Runnable runnable) {
+        try {
+            runnable.run();
+            return true;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LexerState extends CorpusState {
+        @Override
+        protected void prepare() {
+            retain(source -> succeeds(() -> lex(source)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class AstBuilderState extends CorpusState {
+        private final CompilerConfiguration configuration = new CompilerConfiguration(CompilerConfiguration.DEFAULT);
+        private final GroovyClassLoader classLoader = new GroovyClassLoader();
+        Corpus.Source source;
+        AstBuilder astBuilder;
+
+        AstBuilder createAstBuilder(Corpus.Source source) {
+            SourceUnit sourceUnit = new SourceUnit(source.getName(), new TextReaderSource(source.getText(), configuration), configuration, classLoader, new ErrorCollector(configuration));
+
+            return new AstBuilder(sourceUnit, false, false);
+        }
+
+        @Setup(Level.Invocation)
+        public void nextAstBuilder() {
+            source = next();
+            astBuilder = createAstBuilder(source);
+
+            prepareAstBuilder();
+        }
+
+        /**
+         * A hook for sub-classes to prepare the created AstBuilder before measuring
+         */
+        protected void prepareAstBuilder() {}
+    }
+
+    @State(Scope.Thread)
+    public static class SllState extends AstBuilderState {
+        @Override
+        protected void prepare() {
+            retain(source -> succeeds(() -> createAstBuilder(source).buildCST(PredictionMode.SLL)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LlState extends AstBuilderState {
+        @Override
+        protected void prepare() {
+            retain(source -> succeeds(() -> createAstBuilder(source).buildCST(PredictionMode.LL)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class VisitState extends AstBuilderState {
+        GroovyParserRuleContext cst;
+
+        @Override
+        protected void prepare() {
+            retain(source -> succeeds(() -> createAstBuilder(source).buildAST()));
+        }
+
+        @Override
+        protected void prepareAstBuilder() {
+            cst = astBuilder.buildCST();
+        }
+    }
+}
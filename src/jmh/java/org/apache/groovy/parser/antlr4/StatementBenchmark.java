@@ -0,0 +1,80 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse the script full of block statements, i.e. local variable declarations, command expressions and method calls,
+ * each of which evaluates {@link SemanticPredicates#isInvalidLocalVariableDeclaration} while predicting, e.g.
+ * {@code gradlew jmh -Pjmh.includes=StatementBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class StatementBenchmark {
+    @Benchmark
+    public ModuleNode parse(StatementState state) {
+        return state.parser.parse("Statements.groovy", state.text);
+    }
+
+    @State(Scope.Thread)
+    public static class StatementState {
+        Antlr4Parser parser;
+        String text;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 1000; i++) {
+                sb.append("def m").append(i).append("(a, b) {\n");
+                sb.append("    int count = a.size()\n");
+                sb.append("    String name = b.name\n");
+                sb.append("    java.util.List<String> list = []\n");
+                sb.append("    foo.bar.Baz baz = new foo.bar.Baz()\n");
+                sb.append("    println name\n");
+                sb.append("    list << name.toUpperCase()\n");
+                sb.append("    a.b.c d\n");
+                sb.append("    count = count + 1\n");
+                sb.append("    if (count > 1) { return list }\n");
+                sb.append("    list.each { item -> def x = item; println x }\n");
+                sb.append("}\n");
+            }
+
+            text = sb.toString();
+            parser = new Antlr4Parser();
+        }
+    }
+}
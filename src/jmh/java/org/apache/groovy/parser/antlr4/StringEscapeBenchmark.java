@@ -0,0 +1,109 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.Token;
+import org.apache.groovy.parser.antlr4.util.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the single scan of escapes, i.e. {@link StringUtils#replaceEscapes(String, int)}, with the pass by pass replacement
+ * on the string literals of the corpus, e.g.
+ * {@code gradlew jmh -Pjmh.includes=StringEscapeBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class StringEscapeBenchmark {
+    @Benchmark
+    public long singleScan(StringEscapeState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        long checksum = 0;
+        for (String literal : state.literals.get(source)) {
+            checksum += StringUtils.replaceEscapes(literal, slashyType(literal)).length();
+        }
+
+        return checksum;
+    }
+
+    @Benchmark
+    public long passByPass(StringEscapeState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        long checksum = 0;
+        for (String literal : state.literals.get(source)) {
+            checksum += StringUtils.replaceEscapesInPasses(literal, slashyType(literal)).length();
+        }
+
+        return checksum;
+    }
+
+    private static int slashyType(String literal) {
+        return literal.startsWith("/") ? StringUtils.SLASHY :
+                    literal.startsWith("$/") ? StringUtils.DOLLAR_SLASHY : StringUtils.NONE_SLASHY;
+    }
+
+    @State(Scope.Thread)
+    public static class StringEscapeState extends CorpusState {
+        final Map<Corpus.Source, List<String>> literals = new IdentityHashMap<>();
+
+        @Override
+        protected void prepare() {
+            retain(source -> {
+                List<String> literalList = new ArrayList<>();
+                try {
+                    for (Token token : new GroovyTokenizer(source.getText(), source.getName())) {
+                        switch (token.getType()) {
+                            case GroovyLexer.StringLiteral:
+                            case GroovyLexer.GStringBegin:
+                            case GroovyLexer.GStringPart:
+                            case GroovyLexer.GStringEnd:
+                                literalList.add(token.getText());
+                                break;
+                        }
+                    }
+                } catch (Exception e) {
+                    return false;
+                }
+
+                literals.put(source, literalList);
+                return true;
+            });
+        }
+    }
+}
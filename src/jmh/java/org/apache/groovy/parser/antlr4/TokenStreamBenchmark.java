@@ -0,0 +1,101 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.apache.groovy.parser.antlr4.internal.DescriptiveErrorStrategy;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare the allocation of the compact token stream with the one of {@code CommonTokenStream}
+ * (see {@code gc.alloc.rate.norm} reported by the gc profiler), e.g.
+ * {@code gradlew jmh -Pjmh.includes=TokenStreamBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TokenStreamBenchmark {
+    @Benchmark
+    public int fill(TokenStreamState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        BufferedTokenStream tokenStream = state.createTokenStream(source);
+        tokenStream.fill();
+
+        return tokenStream.size();
+    }
+
+    @Benchmark
+    public Object buildCstSll(TokenStreamState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        return state.buildCstSll(source);
+    }
+
+    @State(Scope.Thread)
+    public static class TokenStreamState extends CorpusState {
+        @Param({"common", "compact"})
+        public String tokenStream;
+
+        @Override
+        protected void prepare() {
+            retain(source -> {
+                try {
+                    buildCstSll(source);
+                    return true;
+                } catch (Throwable t) {
+                    return false;
+                }
+            });
+        }
+
+        BufferedTokenStream createTokenStream(Corpus.Source source) {
+            GroovyLangLexer lexer = new GroovyLangLexer(StringCharStream.create(source.getText(), source.getName()));
+
+            return "compact".equals(tokenStream) ? new CompactTokenStream(lexer) : new CommonTokenStream(lexer);
+        }
+
+        Object buildCstSll(Corpus.Source source) {
+            GroovyLangParser parser = new GroovyLangParser(createTokenStream(source));
+            parser.removeErrorListeners();
+            parser.setErrorHandler(new DescriptiveErrorStrategy(parser.getInputStream().getTokenSource().getInputStream()));
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+
+            return parser.compilationUnit();
+        }
+    }
+}
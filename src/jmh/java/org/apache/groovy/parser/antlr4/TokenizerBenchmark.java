@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.Token;
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare lexing-only via {@link GroovyTokenizer} with full parsing, e.g.
+ * {@code gradlew jmh -Pjmh.includes=TokenizerBenchmark}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TokenizerBenchmark {
+    @Benchmark
+    public long tokenizeWithHandler(TokenizerState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        long[] checksum = new long[1];
+        new GroovyTokenizer(source.getText(), source.getName())
+                .tokenize((type, channel, startIndex, stopIndex, line, column) -> checksum[0] += type + stopIndex);
+
+        return checksum[0];
+    }
+
+    @Benchmark
+    public long tokenizeWithIterator(TokenizerState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        long checksum = 0;
+        for (Token token : new GroovyTokenizer(source.getText(), source.getName())) {
+            checksum += token.getType() + token.getStopIndex();
+        }
+
+        return checksum;
+    }
+
+    @Benchmark
+    public ModuleNode parse(TokenizerState state, ThroughputCounters counters) {
+        Corpus.Source source = state.next();
+        counters.record(source);
+
+        return state.parser.parse(source.getName(), source.getText());
+    }
+
+    @State(Scope.Thread)
+    public static class TokenizerState extends CorpusState {
+        Antlr4Parser parser;
+
+        @Override
+        protected void prepare() {
+            parser = new Antlr4Parser();
+            retain(source -> null != parser.parse(source.getName(), source.getText()));
+        }
+    }
+}
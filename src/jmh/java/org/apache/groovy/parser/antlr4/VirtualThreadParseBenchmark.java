@@ -0,0 +1,91 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.apache.groovy.parser.Antlr4Parser;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of {@code Antlr4Parser.parseAsync} with 10k concurrent parse requests, e.g.
+ * {@code gradlew jmh -Pjmh.includes=VirtualThreadParseBenchmark}
+ *
+ * The {@code virtual} executor runs on virtual threads with Java 21+ only, and falls back to a work-stealing pool otherwise.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VirtualThreadParseBenchmark {
+    private static final int CONCURRENT_REQUEST_CNT = 10_000;
+
+    @Benchmark
+    public int parseAsync(LoadState state, ThroughputCounters counters) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[CONCURRENT_REQUEST_CNT];
+        for (int i = 0; i < CONCURRENT_REQUEST_CNT; i++) {
+            Corpus.Source source = state.next();
+            counters.record(source);
+
+            futures[i] = state.parser.parseAsync(source.getName(), source.getText(), state.executorService)
+                    .exceptionally(t -> (ModuleNode) null);
+        }
+
+        CompletableFuture.allOf(futures).join();
+
+        return futures.length;
+    }
+
+    @State(Scope.Benchmark)
+    public static class LoadState extends CorpusState {
+        @Param({"virtual", "platform"})
+        public String executor;
+
+        Antlr4Parser parser;
+        ExecutorService executorService;
+
+        @Override
+        protected void prepare() {
+            parser = new Antlr4Parser();
+            executorService = "virtual".equals(executor)
+                    ? Antlr4Parser.newVirtualThreadExecutor()
+                    : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+
+        @TearDown
+        public void shutdown() {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -38,8 +38,6 @@ options {
 }
 
 @header {
-    import java.util.Deque;
-    import java.util.ArrayDeque;
     import java.util.Map;
     import java.util.HashMap;
     import java.util.Set;
@@ -79,18 +77,30 @@ options {
         super.emit(token);
     }
 
-    private static final int[] REGEX_CHECK_ARRAY =
-                                    IntStream.of(
+    /**
+     * The token types after which a slash is a division operator rather than the beginning of a slashy string,
+     * indexed by token type so that checking a token type is just an array access
+     */
+    private static final boolean[] REGEX_CHECK_TABLE =
+                                    createTokenTypeTable(
                                         Identifier, CapitalizedIdentifier, NullLiteral, BooleanLiteral, THIS, RPAREN, RBRACK, RBRACE,
                                         IntegerLiteral, FloatingPointLiteral, StringLiteral, GStringEnd, INC, DEC
-                                    ).sorted().toArray();
+                                    );
 
-    private boolean isRegexAllowed() {
-        if (Arrays.binarySearch(REGEX_CHECK_ARRAY, this.lastTokenType) >= 0) {
-            return false;
+    private static boolean[] createTokenTypeTable(int... tokenTypes) {
+        boolean[] table = new boolean[IntStream.of(tokenTypes).max().getAsInt() + 1];
+        for (int tokenType : tokenTypes) {
+            table[tokenType] = true;
         }
 
-        return true;
+        return table;
+    }
+
+    private boolean isRegexAllowed() {
+        int tokenType = this.lastTokenType;
+
+        // lastTokenType is EOF(i.e. -1) after the EOF token is emitted
+        return tokenType < 0 || tokenType >= REGEX_CHECK_TABLE.length || !REGEX_CHECK_TABLE[tokenType];
     }
 
     /**
@@ -98,84 +108,72 @@ options {
      */
     protected void rollbackOneChar() {}
 
-    private static class Paren {
-        private String text;
-        private int lastTokenType;
-        private int line;
-        private int column;
-
-        public Paren(String text, int lastTokenType, int line, int column) {
-            this.text = text;
-            this.lastTokenType = lastTokenType;
-            this.line = line;
-            this.column = column;
-        }
-
-        public String getText() {
-            return this.text;
-        }
+    protected void enterParenCallback(String text) {}
 
-        public int getLastTokenType() {
-            return this.lastTokenType;
-        }
+    protected void exitParenCallback(String text) {}
 
-        public int getLine() {
-            return line;
-        }
+    /**
+     * The stack of the entered parens, i.e. "(", "[" and "{", kept in parallel primitive arrays
+     * so that entering a paren allocates nothing
+     */
+    private int[] parenKinds = new int[32];
+    private int[] parenLastTokenTypes = new int[32];
+    private int[] parenLines = new int[32];
+    private int[] parenColumns = new int[32];
+    private int parenDepth = 0;
 
-        public int getColumn() {
-            return column;
-        }
+    private void enterParen() {
+        int kind = _input.LA(-1); // the paren just matched
+        enterParenCallback(parenText(kind));
 
-        @Override
-        public int hashCode() {
-            return (int) (text.hashCode() * line + column);
+        if (parenDepth == parenKinds.length) {
+            growParenStack(parenDepth << 1);
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (!(obj instanceof Paren)) {
-                return false;
-            }
-
-            Paren other = (Paren) obj;
-
-            return this.text.equals(other.text) && (this.line == other.line && this.column == other.column);
-        }
+        parenKinds[parenDepth] = kind;
+        parenLastTokenTypes[parenDepth] = this.lastTokenType;
+        parenLines[parenDepth] = getLine();
+        parenColumns[parenDepth] = getCharPositionInLine();
+        parenDepth++;
     }
 
-    protected void enterParenCallback(String text) {}
-
-    protected void exitParenCallback(String text) {}
-
-    private final Deque<Paren> parenStack = new ArrayDeque<>(32);
-
-    private void enterParen() {
-        String text = getText();
-        enterParenCallback(text);
+    private void exitParen() {
+        exitParenCallback(parenText(_input.LA(-1)));
 
-        parenStack.push(new Paren(text, this.lastTokenType, getLine(), getCharPositionInLine()));
+        if (0 == parenDepth) return;
+        parenDepth--;
     }
 
-    private void exitParen() {
-        String text = getText();
-        exitParenCallback(text);
+    private void growParenStack(int capacity) {
+        parenKinds = Arrays.copyOf(parenKinds, capacity);
+        parenLastTokenTypes = Arrays.copyOf(parenLastTokenTypes, capacity);
+        parenLines = Arrays.copyOf(parenLines, capacity);
+        parenColumns = Arrays.copyOf(parenColumns, capacity);
+    }
 
-        Paren paren = parenStack.peek();
-        if (null == paren) return;
-        parenStack.pop();
+    private static String parenText(int c) {
+        switch (c) {
+            case '(': return "(";
+            case ')': return ")";
+            case '[': return "[";
+            case ']': return "]";
+            case '{': return "{";
+            case '}': return "}";
+            default: return String.valueOf((char) c);
+        }
     }
-    private boolean isInsideParens() {
-        Paren paren = parenStack.peek();
 
+    private boolean isInsideParens() {
         // We just care about "(" and "[", inside which the new lines will be ignored.
         // Notice: the new lines between "{" and "}" can not be ignored.
-        if (null == paren) {
+        if (0 == parenDepth) {
             return false;
         }
 
-        return ("(".equals(paren.getText()) && TRY != paren.getLastTokenType()) // we don't treat try-paren(i.e. try (....)) as parenthesis
-                    || "[".equals(paren.getText());
+        int kind = parenKinds[parenDepth - 1];
+
+        return ('(' == kind && TRY != parenLastTokenTypes[parenDepth - 1]) // we don't treat try-paren(i.e. try (....)) as parenthesis
+                    || '[' == kind;
     }
     private void ignoreTokenInsideParens() {
         if (!this.isInsideParens()) {
@@ -192,6 +190,119 @@ options {
         this.setChannel(Token.HIDDEN_CHANNEL);
     }
 
+    /**
+     * The snapshot of the lexer state at a token boundary, from which the lexing can be restarted
+     */
+    public static final class LexerState {
+        private final int charIndex;
+        private final int line;
+        private final int column;
+        private final int mode;
+        private final int[] modeStack;
+        private final int[] parenKinds;
+        private final int[] parenLastTokenTypes;
+        private final int[] parenLines;
+        private final int[] parenColumns;
+        private final long tokenIndex;
+        private final int lastTokenType;
+        private final int invalidDigitCount;
+
+        private LexerState(int charIndex, int line, int column, int mode, int[] modeStack,
+                           int[] parenKinds, int[] parenLastTokenTypes, int[] parenLines, int[] parenColumns,
+                           long tokenIndex, int lastTokenType, int invalidDigitCount) {
+            this.charIndex = charIndex;
+            this.line = line;
+            this.column = column;
+            this.mode = mode;
+            this.modeStack = modeStack;
+            this.parenKinds = parenKinds;
+            this.parenLastTokenTypes = parenLastTokenTypes;
+            this.parenLines = parenLines;
+            this.parenColumns = parenColumns;
+            this.tokenIndex = tokenIndex;
+            this.lastTokenType = lastTokenType;
+            this.invalidDigitCount = invalidDigitCount;
+        }
+
+        public int getCharIndex() {
+            return charIndex;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+
+        /**
+         * Move the state by the specified numbers of code points and lines, e.g. when the text before it is edited
+         */
+        public LexerState shift(int charDelta, int lineDelta) {
+            return new LexerState(charIndex + charDelta, line + lineDelta, column, mode, modeStack,
+                                    parenKinds, parenLastTokenTypes, parenLines, parenColumns, tokenIndex, lastTokenType, invalidDigitCount);
+        }
+
+        /**
+         * Check whether lexing the same text from the two states will produce the same tokens,
+         * i.e. the states are the same except the positions
+         */
+        public boolean isEquivalent(LexerState other) {
+            if (this.column != other.column
+                    || this.mode != other.mode
+                    || this.lastTokenType != other.lastTokenType
+                    || (0 == this.tokenIndex) != (0 == other.tokenIndex)
+                    || !Arrays.equals(this.modeStack, other.modeStack)) {
+                return false;
+            }
+
+            // the positions of parens are not used when lexing
+            return Arrays.equals(this.parenKinds, other.parenKinds)
+                    && Arrays.equals(this.parenLastTokenTypes, other.parenLastTokenTypes);
+        }
+    }
+
+    /**
+     * Take a snapshot of the lexer state, which should be called between tokens
+     */
+    public LexerState captureState() {
+        return new LexerState(_input.index(), getLine(), getCharPositionInLine(), _mode, _modeStack.toArray(),
+                                Arrays.copyOf(parenKinds, parenDepth), Arrays.copyOf(parenLastTokenTypes, parenDepth),
+                                Arrays.copyOf(parenLines, parenDepth), Arrays.copyOf(parenColumns, parenDepth),
+                                tokenIndex, lastTokenType, invalidDigitCount);
+    }
+
+    /**
+     * Restore the lexer state from the snapshot, so that the next token will be lexed from the position of the snapshot
+     */
+    public void restoreState(LexerState state) {
+        _input.seek(state.charIndex);
+        setLine(state.line);
+        setCharPositionInLine(state.column);
+        _hitEOF = false;
+        _token = null;
+
+        _mode = state.mode;
+        _modeStack.clear();
+        for (int mode : state.modeStack) {
+            _modeStack.push(mode);
+        }
+
+        parenDepth = state.parenKinds.length;
+        if (parenDepth > parenKinds.length) {
+            growParenStack(parenDepth);
+        }
+        System.arraycopy(state.parenKinds, 0, parenKinds, 0, parenDepth);
+        System.arraycopy(state.parenLastTokenTypes, 0, parenLastTokenTypes, 0, parenDepth);
+        System.arraycopy(state.parenLines, 0, parenLines, 0, parenDepth);
+        System.arraycopy(state.parenColumns, 0, parenColumns, 0, parenDepth);
+
+        tokenIndex = state.tokenIndex;
+        lastTokenType = state.lastTokenType;
+        invalidDigitCount = state.invalidDigitCount;
+    }
+
     @Override
     public int getSyntaxErrorSource() {
         return GroovySyntaxError.LEXER;
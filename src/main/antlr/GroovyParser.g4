@@ -40,6 +40,7 @@ options {
 }
 
 @header {
+    import java.util.Arrays;
     import java.util.Map;
     import org.codehaus.groovy.ast.NodeMetaDataHandler;
 }
@@ -66,6 +67,37 @@ options {
         }
     }
 
+    /**
+     * The results of {@link SemanticPredicates#isInvalidLocalVariableDeclaration(TokenStream)} indexed by the index of the first token,
+     * i.e. 0: not checked yet, 1: valid, 2: invalid. The predicate is evaluated repeatedly for the same statement while predicting
+     */
+    private byte[] localVariableDeclarationChecks = new byte[0];
+
+    boolean isInvalidLocalVariableDeclaration() {
+        int index = _input.LT(1).getTokenIndex();
+        if (index < 0) {
+            return SemanticPredicates.isInvalidLocalVariableDeclaration(_input);
+        }
+
+        if (index >= localVariableDeclarationChecks.length) {
+            localVariableDeclarationChecks = Arrays.copyOf(localVariableDeclarationChecks, Math.max(index + 1, Math.max(localVariableDeclarationChecks.length << 1, 256)));
+        }
+
+        byte check = localVariableDeclarationChecks[index];
+        if (0 == check) {
+            check = SemanticPredicates.isInvalidLocalVariableDeclaration(_input) ? (byte) 2 : (byte) 1;
+            localVariableDeclarationChecks[index] = check;
+        }
+
+        return 2 == check;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        localVariableDeclarationChecks = new byte[0]; // the memo is bound to the tokens of the previous input stream
+    }
+
     @Override
     public int getSyntaxErrorSource() {
         return GroovySyntaxError.PARSER;
@@ -557,7 +589,7 @@ blockStatement
     ;
 
 localVariableDeclaration
-    :   { !SemanticPredicates.isInvalidLocalVariableDeclaration(_input) }?
+    :   { !isInvalidLocalVariableDeclaration() }?
         variableDeclaration[0]
     ;
 
@@ -733,15 +765,18 @@ statementExpression
     :   commandExpression                   #commandExprAlt
     ;
 
-postfixExpression
-    :   pathExpression op=(INC | DEC)?
+/**
+ *  t   the kind of the last path element, see pathExpression
+ */
+postfixExpression returns [int t]
+    :   pathExpression { $t = $pathExpression.t; } op=(INC | DEC)?
     ;
 
 expression
     // qualified names, array expressions, method invocation, post inc/dec, type casting (level 1)
     // The cast expression must be put before pathExpression to resovle the ambiguities between type casting and call on parentheses expression, e.g. (int)(1 / 2)
     :   castParExpression castOperandExpression                                             #castExprAlt
-    |   postfixExpression                                                                   #postfixExprAlt
+    |   pe=postfixExpression                                                                #postfixExprAlt
 
     // ~(BNOT)/!(LNOT) (level 1)
     |   (BITNOT | NOT) nls expression                                                       #unaryNotExprAlt
@@ -837,7 +872,7 @@ expression
 castOperandExpression
 options { baseContext = expression; }
     :   castParExpression castOperandExpression                                             #castExprAlt
-    |   postfixExpression                                                                   #postfixExprAlt
+    |   pe=postfixExpression                                                                #postfixExprAlt
 
     // ~(BNOT)/!(LNOT) (level 1)
     |   (BITNOT | NOT) nls castOperandExpression                                            #unaryNotExprAlt
@@ -19,12 +19,21 @@
 package org.apache.groovy.parser;
 
 import groovy.lang.GroovyClassLoader;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.ErrorCollector;
 import org.codehaus.groovy.control.SourceUnit;
 
 import java.io.File;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -39,14 +48,61 @@ public abstract class AbstractParser {
     private static final Logger LOGGER = Logger.getLogger(AbstractParser.class.getName());
 
     public ModuleNode parse(File file) {
+        return this.parse(file, new GroovyClassLoader());
+    }
+
+    private ModuleNode parse(File file, GroovyClassLoader classLoader) {
+        return this.parse(this.createSourceUnit(file, classLoader));
+    }
+
+    private SourceUnit createSourceUnit(File file, GroovyClassLoader classLoader) {
         if (null == file || !file.exists()) {
             throw new IllegalArgumentException(file + " does not exist.");
         }
 
         CompilerConfiguration configuration = this.getCompilerConfiguration();
-        SourceUnit sourceUnit = new SourceUnit(file, configuration, new GroovyClassLoader(), new ErrorCollector(configuration));
 
-        return this.parse(sourceUnit);
+        return new SourceUnit(file, configuration, classLoader, new ErrorCollector(configuration));
+    }
+
+    /**
+     * Parse the files in parallel with the common {@link ForkJoinPool}
+     *
+     * @see #parseAll(Collection, Executor)
+     */
+    public Map<Path, CompletableFuture<ModuleNode>> parseAll(Collection<Path> paths) {
+        return this.parseAll(paths, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the files in parallel, sharing one class loader and the compiler configuration of this parser
+     *
+     * @param paths the files to parse, which should not contain duplicate paths
+     * @param executor the executor to parse the files with
+     * @return the module nodes(completed exceptionally with the {@code CompilationFailedException} if failed to parse)
+     *         keyed by the paths, in the order of the given paths
+     * @throws IllegalArgumentException if the paths contain duplicate paths, whose module nodes would be mixed up otherwise
+     */
+    public Map<Path, CompletableFuture<ModuleNode>> parseAll(Collection<Path> paths, Executor executor) {
+        if (null == paths) {
+            throw new IllegalArgumentException("paths should not be null");
+        }
+
+        if (null == executor) {
+            throw new IllegalArgumentException("executor should not be null");
+        }
+
+        if (new HashSet<>(paths).size() != paths.size()) {
+            throw new IllegalArgumentException("paths should not contain duplicate paths");
+        }
+
+        GroovyClassLoader classLoader = new GroovyClassLoader();
+        Map<Path, CompletableFuture<ModuleNode>> result = new LinkedHashMap<>();
+        for (Path path : paths) {
+            result.put(path, CompletableFuture.supplyAsync(() -> this.convert(this.createSourceUnit(path.toFile(), classLoader)), executor));
+        }
+
+        return result;
     }
 
     public ModuleNode parse(String name, String text) {
@@ -59,19 +115,14 @@ public abstract class AbstractParser {
         }
 
         CompilerConfiguration configuration = this.getCompilerConfiguration();
-        SourceUnit sourceUnit = new SourceUnit(name, text, configuration, new GroovyClassLoader(), new ErrorCollector(configuration));
+        SourceUnit sourceUnit = new SourceUnit(name, new TextReaderSource(text, configuration), configuration, new GroovyClassLoader(), new ErrorCollector(configuration));
 
         return this.parse(sourceUnit);
     }
 
     public ModuleNode parse(SourceUnit sourceUnit) {
         try {
-            sourceUnit.parse();
-            sourceUnit.completePhase();
-            sourceUnit.nextPhase();
-            sourceUnit.convert();
-
-            return sourceUnit.getAST();
+            return this.convert(sourceUnit);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to parse " + sourceUnit.getName(), e);
 
@@ -79,5 +130,17 @@ public abstract class AbstractParser {
         }
     }
 
+    /**
+     * Parse the source unit and convert it to the module node, the failure is thrown rather than logged
+     */
+    protected ModuleNode convert(SourceUnit sourceUnit) {
+        sourceUnit.parse();
+        sourceUnit.completePhase();
+        sourceUnit.nextPhase();
+        sourceUnit.convert();
+
+        return sourceUnit.getAST();
+    }
+
     protected abstract CompilerConfiguration getCompilerConfiguration();
 }
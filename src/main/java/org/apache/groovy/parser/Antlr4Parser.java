@@ -18,14 +18,27 @@
  */
 package org.apache.groovy.parser;
 
+import groovy.lang.GroovyClassLoader;
 import org.apache.groovy.parser.antlr4.Antlr4PluginFactory;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
+import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The Antlr4 parser for creating a module node.
  */
 public class Antlr4Parser extends AbstractParser {
     private final CompilerConfiguration compilerConfiguration;
+    private final AtomicReference<GroovyClassLoader> classLoader = new AtomicReference<>(); // created on the first asynchronous parsing
 
     public Antlr4Parser() {
         this(new CompilerConfiguration(CompilerConfiguration.DEFAULT));
@@ -36,6 +49,62 @@ public class Antlr4Parser extends AbstractParser {
         compilerConfiguration.setPluginFactory(new Antlr4PluginFactory());
     }
 
+    /**
+     * Parse the source on the executor, e.g. the one created by {@link #newVirtualThreadExecutor()}.
+     *
+     * Parsing takes no lock of its own(the DFA cache is cleared without locking) and does not log the failure,
+     * which is thrown by the returned future instead. Note that the ANTLR runtime still updates the shared DFA cache
+     * in synchronized blocks, so a virtual thread may block briefly on a contended monitor, which pins its carrier thread on JDK 21.
+     * All the sources parsed asynchronously by this parser share the compiler configuration and one class loader,
+     * which is created on the first call, with the context class loader of the calling thread as its parent.
+     *
+     * @return the module node, or the future completed exceptionally with the {@code CompilationFailedException}
+     */
+    public CompletableFuture<ModuleNode> parseAsync(String name, String text, Executor executor) {
+        if (null == name) {
+            throw new IllegalArgumentException("name should not be null");
+        }
+
+        if (null == text) {
+            throw new IllegalArgumentException("text should not be null");
+        }
+
+        if (null == executor) {
+            throw new IllegalArgumentException("executor should not be null");
+        }
+
+        GroovyClassLoader classLoader = this.getClassLoader();
+
+        return CompletableFuture.supplyAsync(() -> {
+            SourceUnit sourceUnit = new SourceUnit(name, new TextReaderSource(text, compilerConfiguration), compilerConfiguration, classLoader, new ErrorCollector(compilerConfiguration));
+
+            return this.convert(sourceUnit);
+        }, executor);
+    }
+
+    private GroovyClassLoader getClassLoader() {
+        GroovyClassLoader result = classLoader.get();
+        if (null == result) {
+            classLoader.compareAndSet(null, new GroovyClassLoader()); // the loser of a race drops its unused class loader
+            result = classLoader.get();
+        }
+
+        return result;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for each parsing(Java 21+),
+     * or a work-stealing pool if virtual threads are not supported by the running JVM
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newWorkStealingPool();
+        }
+    }
+
     @Override
     protected CompilerConfiguration getCompilerConfiguration() {
         return compilerConfiguration;
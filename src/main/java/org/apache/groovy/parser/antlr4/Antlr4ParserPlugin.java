@@ -18,11 +18,11 @@
  */
 package org.apache.groovy.parser.antlr4;
 
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
 import org.codehaus.groovy.GroovyBugError;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.control.ParserPlugin;
 import org.codehaus.groovy.control.SourceUnit;
-import org.codehaus.groovy.control.io.StringReaderSource;
 import org.codehaus.groovy.runtime.IOGroovyMethods;
 import org.codehaus.groovy.syntax.Reduction;
 
@@ -33,17 +33,29 @@ import java.io.Reader;
  * A parser plugin for the new parser.
  */
 public class Antlr4ParserPlugin implements ParserPlugin {
+    private final StringPool stringPool;
+
+    public Antlr4ParserPlugin() {
+        this(null);
+    }
+
+    /**
+     * @param stringPool the pool shared by the source units parsed via the same factory, see {@link AstBuilder#INTERN_STRINGS}
+     */
+    Antlr4ParserPlugin(final StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
 
     @Override
     public Reduction parseCST(final SourceUnit sourceUnit, final Reader reader) {
         if (!sourceUnit.getSource().canReopenSource()) {
             try {
-                sourceUnit.setSource(new StringReaderSource(
+                sourceUnit.setSource(new TextReaderSource(
                         IOGroovyMethods.getText(reader),
                         sourceUnit.getConfiguration()
                 ));
             } catch (IOException e) {
-                throw new GroovyBugError("Failed to create StringReaderSource", e);
+                throw new GroovyBugError("Failed to create TextReaderSource", e);
             }
         }
         return null;
@@ -53,7 +65,9 @@ public class Antlr4ParserPlugin implements ParserPlugin {
     public ModuleNode buildAST(final SourceUnit sourceUnit, final ClassLoader classLoader, final Reduction cst) {
         AstBuilder builder = new AstBuilder(sourceUnit,
                 sourceUnit.getConfiguration().isGroovydocEnabled(),
-                sourceUnit.getConfiguration().isRuntimeGroovydocEnabled()
+                sourceUnit.getConfiguration().isRuntimeGroovydocEnabled(),
+                null,
+                stringPool
         );
         return builder.buildAST();
     }
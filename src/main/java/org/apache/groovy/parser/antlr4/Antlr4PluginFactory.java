@@ -25,9 +25,10 @@ import org.codehaus.groovy.control.ParserPluginFactory;
  * A parser plugin factory for the new parser.
  */
 public class Antlr4PluginFactory extends ParserPluginFactory {
+    private final StringPool stringPool = new StringPool();
 
     @Override
     public ParserPlugin createParserPlugin() {
-        return new Antlr4ParserPlugin();
+        return new Antlr4ParserPlugin(stringPool);
     }
 }
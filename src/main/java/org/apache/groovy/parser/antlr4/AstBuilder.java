@@ -29,15 +29,21 @@ import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
 import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.TokenStream;
 import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
 import org.apache.groovy.parser.antlr4.internal.DescriptiveErrorStrategy;
+import org.apache.groovy.parser.antlr4.internal.MappedFileCharStream;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
 import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager;
 import org.apache.groovy.parser.antlr4.util.StringUtils;
 import org.apache.groovy.util.Maps;
+import org.apache.groovy.util.SystemUtil;
 import org.codehaus.groovy.GroovyBugError;
 import org.codehaus.groovy.antlr.EnumHelper;
 import org.codehaus.groovy.ast.ASTNode;
@@ -116,7 +122,10 @@ import org.codehaus.groovy.ast.stmt.WhileStatement;
 import org.codehaus.groovy.ast.tools.ClosureUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilePhase;
+import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.io.FileReaderSource;
+import org.codehaus.groovy.control.io.ReaderSource;
 import org.codehaus.groovy.control.messages.SyntaxErrorMessage;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.StringGroovyMethods;
@@ -126,7 +135,10 @@ import org.codehaus.groovy.syntax.Types;
 import org.objectweb.asm.Opcodes;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -341,21 +353,67 @@ import static org.codehaus.groovy.runtime.DefaultGroovyMethods.last;
 public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
     public AstBuilder(final SourceUnit sourceUnit, final boolean groovydocEnabled, final boolean runtimeGroovydocEnabled) {
+        this(sourceUnit, groovydocEnabled, runtimeGroovydocEnabled, null);
+    }
+
+    /**
+     * @param tokenSource the tokens lexed elsewhere(e.g. by {@link IncrementalLexer}) from the source code of the source unit,
+     *                    whose input stream is the char stream of the source code, or {@code null} to lex the source code by the builder
+     */
+    AstBuilder(final SourceUnit sourceUnit, final boolean groovydocEnabled, final boolean runtimeGroovydocEnabled, final TokenSource tokenSource) {
+        this(sourceUnit, groovydocEnabled, runtimeGroovydocEnabled, tokenSource, null);
+    }
+
+    /**
+     * @param stringPool the pool shared with other source units(e.g. of the same batch) if {@link #INTERN_STRINGS} is enabled,
+     *                   or {@code null} to share strings within the source unit only
+     */
+    AstBuilder(final SourceUnit sourceUnit, final boolean groovydocEnabled, final boolean runtimeGroovydocEnabled, final TokenSource tokenSource, final StringPool stringPool) {
         this.sourceUnit = sourceUnit;
         this.moduleNode = new ModuleNode(sourceUnit);
-        CharStream charStream = createCharStream(sourceUnit);
+        CharStream charStream = null == tokenSource ? createCharStream(sourceUnit) : tokenSource.getInputStream();
 
-        this.lexer = new GroovyLangLexer(charStream);
-        this.parser = new GroovyLangParser(new CommonTokenStream(this.lexer));
+        this.charStream = charStream;
+        this.lexer = null == tokenSource ? new GroovyLangLexer(charStream) : null;
+        this.parser = new GroovyLangParser(createTokenStream(sourceUnit, tokenSource));
         this.parser.setErrorHandler(new DescriptiveErrorStrategy(charStream));
 
         this.groovydocManager = new GroovydocManager(groovydocEnabled, runtimeGroovydocEnabled);
+        this.signaturesOnly = Boolean.TRUE.equals(sourceUnit.getConfiguration().getOptimizationOptions().get(SIGNATURES_ONLY));
+        this.stringPool = Boolean.TRUE.equals(sourceUnit.getConfiguration().getOptimizationOptions().get(INTERN_STRINGS))
+                ? (null == stringPool ? new StringPool() : stringPool)
+                : null;
         this.tryWithResourcesASTTransformation = new TryWithResourcesASTTransformation(this);
     }
 
+    private TokenStream createTokenStream(SourceUnit sourceUnit, TokenSource tokenSource) {
+        if (null != tokenSource) {
+            return new CommonTokenStream(tokenSource);
+        }
+
+        if (Boolean.TRUE.equals(sourceUnit.getConfiguration().getOptimizationOptions().get(DECLARATIONS_ONLY))) {
+            return new CommonTokenStream(new DeclarationTokenSource(this.lexer));
+        }
+
+        return COMPACT_TOKENS_ENABLED ? new CompactTokenStream(this.lexer) : new CommonTokenStream(this.lexer);
+    }
+
     private CharStream createCharStream(SourceUnit sourceUnit) {
         CharStream charStream;
 
+        ReaderSource source = sourceUnit.getSource();
+        if (source instanceof TextReaderSource) {
+            return StringCharStream.create(((TextReaderSource) source).getText(), sourceUnit.getName());
+        }
+
+        if (source instanceof FileReaderSource && isMappable(((FileReaderSource) source).getFile(), sourceUnit.getConfiguration())) {
+            try {
+                return MappedFileCharStream.open(((FileReaderSource) source).getFile().toPath(), sourceUnit.getName());
+            } catch (IOException e) {
+                // fall back to reading the file via the reader, e.g. the file has grown too big to map since checked
+            }
+        }
+
         try {
             charStream = CharStreams.fromReader(
                     new BufferedReader(sourceUnit.getSource().getReader()),
@@ -367,12 +425,42 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         return charStream;
     }
 
-    private GroovyParserRuleContext buildCST() throws CompilationFailedException {
+    /**
+     * Big UTF-8 files are lexed via memory mapping to avoid copying their text to heap
+     */
+    private static boolean isMappable(File file, CompilerConfiguration configuration) {
+        long length = file.length();
+        // a region bigger than Integer.MAX_VALUE bytes can not be mapped as one buffer
+        if (MMAP_THRESHOLD <= 0 || length < MMAP_THRESHOLD || length > Integer.MAX_VALUE) {
+            return false;
+        }
+
+        try {
+            return StandardCharsets.UTF_8.equals(Charset.forName(configuration.getSourceEncoding()));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    GroovyParserRuleContext buildCST() throws CompilationFailedException {
+        return buildCST(true);
+    }
+
+    /**
+     * @param recorded whether the parse is recorded by the DFA cache metrics and {@link SllFallbackReport},
+     *                 e.g. not when replaying the sources of {@link DfaSnapshot}
+     */
+    GroovyParserRuleContext buildCST(boolean recorded) throws CompilationFailedException {
         GroovyParserRuleContext result;
+        SllFallbackReport sllFallbackReport = SllFallbackReport.INSTANCE;
+        boolean reported = recorded && sllFallbackReport.isEnabled();
+        boolean llFallback = false;
+
+        if (reported) {
+            sllFallbackReport.onParsed();
+        }
 
         try {
-            // parsing have to wait util clearing is complete.
-            AtnManager.READ_LOCK.lock();
             try {
                 result = buildCST(PredictionMode.SLL);
             } catch (Throwable t) {
@@ -381,18 +469,29 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
                     throw t;
                 }
 
-                result = buildCST(PredictionMode.LL);
-            } finally {
-                AtnManager.READ_LOCK.unlock();
+                llFallback = true;
+                if (reported) {
+                    recordSllFallback(sllFallbackReport, t);
+                }
+
+                result = resumeCST(t);
+                if (null == result) {
+                    result = buildCST(PredictionMode.LL);
+                }
             }
         } catch (Throwable t) {
             throw convertException(t);
+        } finally {
+            // the outcome is recorded after the LL retry finishes, whether it succeeds or not
+            if (recorded) {
+                AtnManager.getMetrics().onParsed(llFallback);
+            }
         }
 
         return result;
     }
 
-    private GroovyParserRuleContext buildCST(PredictionMode predictionMode) {
+    GroovyParserRuleContext buildCST(PredictionMode predictionMode) {
         parser.getInterpreter().setPredictionMode(predictionMode);
 
         if (PredictionMode.SLL.equals(predictionMode)) {
@@ -405,6 +504,37 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         return parser.compilationUnit();
     }
 
+    private void recordSllFallback(SllFallbackReport sllFallbackReport, Throwable sllFailure) {
+        DescriptiveErrorStrategy errorStrategy = (DescriptiveErrorStrategy) parser.getErrorHandler();
+
+        if (sllFailure instanceof ParseCancellationException) {
+            sllFallbackReport.record(sourceUnit.getName(), parser, errorStrategy.getFailedContext(), errorStrategy.getFailedException());
+        } else {
+            sllFallbackReport.record(sourceUnit.getName(), parser, null, null);
+        }
+    }
+
+    /**
+     * Retry LL mode only from the top-level declaration where SLL mode failed, if {@link #LL_RESUME} is enabled.
+     * The failure of the resumed parse is reported as is, without parsing the whole source again
+     *
+     * @return the parse tree, or {@code null} if the whole source has to be parsed in LL mode
+     */
+    private GroovyParserRuleContext resumeCST(Throwable sllFailure) {
+        if (!Boolean.TRUE.equals(sourceUnit.getConfiguration().getOptimizationOptions().get(LL_RESUME))
+                || !(sllFailure instanceof ParseCancellationException)) {
+            return null;
+        }
+
+        ParserRuleContext failedContext = ((DescriptiveErrorStrategy) parser.getErrorHandler()).getFailedContext();
+        if (null == failedContext) {
+            return null;
+        }
+
+        this.addErrorListeners();
+        return new LlResumer(parser).resume(failedContext);
+    }
+
     private CompilationFailedException convertException(Throwable t) {
         CompilationFailedException cfe;
 
@@ -427,6 +557,18 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         }
     }
 
+    /**
+     * Build the AST from the parse tree parsed elsewhere(e.g. by {@link IncrementalParser}), whose tokens must be
+     * positioned in the source code of the source unit
+     */
+    ModuleNode buildAST(GroovyParserRuleContext cst) {
+        try {
+            return (ModuleNode) this.visit(cst);
+        } catch (Throwable t) {
+            throw convertException(t);
+        }
+    }
+
     @Override
     public ModuleNode visitCompilationUnit(CompilationUnitContext ctx) {
         this.visit(ctx.packageDeclaration());
@@ -1730,6 +1872,10 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
             return null;
         }
 
+        if (signaturesOnly) { // the empty body still tells the method from the abstract one
+            return configureAST(this.createBlockStatement(), ctx);
+        }
+
         return configureAST(this.visitBlock(ctx.block()), ctx);
     }
 
@@ -2681,7 +2827,7 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         }
 
         //handle escapes.
-        return StringUtils.replaceEscapes(text, slashyType);
+        return intern(StringUtils.replaceEscapes(text, slashyType));
     }
 
     private int getSlashyType(String text) {
@@ -2731,7 +2877,7 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         } else if (asBoolean(ctx.dynamicMemberName())) {
             return configureAST(this.visitDynamicMemberName(ctx.dynamicMemberName()), ctx);
         } else if (asBoolean(ctx.keywords())) {
-            return configureAST(new ConstantExpression(ctx.keywords().getText()), ctx);
+            return configureAST(new ConstantExpression(intern(ctx.keywords().getText())), ctx);
         }
 
         throw createParsingFailedException("Unsupported name part: " + ctx.getText(), ctx);
@@ -3361,7 +3507,7 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
     @Override
     public ConstantExpression visitKeywords(KeywordsContext ctx) {
-        return configureAST(new ConstantExpression(ctx.getText()), ctx);
+        return configureAST(new ConstantExpression(intern(ctx.getText())), ctx);
     }
 
     @Override
@@ -3612,7 +3758,7 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
         if (asBoolean(ctx.GStringPathPart())) {
             Expression propertyExpression = ctx.GStringPathPart().stream()
-                    .map(e -> configureAST((Expression) new ConstantExpression(e.getText().substring(1)), e))
+                    .map(e -> configureAST((Expression) new ConstantExpression(intern(e.getText().substring(1))), e))
                     .reduce(configureAST(variableExpression, ctx.identifier()), (r, e) -> configureAST(new PropertyExpression(r, e), e));
 
             return configureAST(propertyExpression, ctx);
@@ -3649,6 +3795,10 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
     @Override
     public Statement visitLambdaBody(LambdaBodyContext ctx) {
+        if (signaturesOnly) {
+            return configureAST(this.createBlockStatement(), ctx);
+        }
+
         if (asBoolean(ctx.statementExpression())) {
             return configureAST((ExpressionStatement) this.visit(ctx.statementExpression()), ctx);
         }
@@ -3672,7 +3822,9 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
             parameters = Parameter.EMPTY_ARRAY;
         }
 
-        Statement code = this.visitBlockStatementsOpt(ctx.blockStatementsOpt());
+        Statement code = signaturesOnly
+                ? configureAST(this.createBlockStatement(), ctx.blockStatementsOpt())
+                : this.visitBlockStatementsOpt(ctx.blockStatementsOpt());
         ClosureExpression result = configureAST(new ClosureExpression(parameters, code), ctx);
 
         visitingClosureCnt--;
@@ -4141,19 +4293,23 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
     @Override
     public String visitClassName(ClassNameContext ctx) {
-        return ctx.getText();
+        return intern(ctx.getText());
     }
 
     @Override
     public String visitIdentifier(IdentifierContext ctx) {
-        return ctx.getText();
+        return intern(ctx.getText());
     }
 
     @Override
     public String visitQualifiedName(QualifiedNameContext ctx) {
-        return ctx.qualifiedNameElement().stream()
+        return intern(ctx.qualifiedNameElement().stream()
                 .map(ParseTree::getText)
-                .collect(Collectors.joining(DOT_STR));
+                .collect(Collectors.joining(DOT_STR)));
+    }
+
+    private String intern(String text) {
+        return null == stringPool ? text : stringPool.intern(text);
     }
 
     @Override
@@ -4517,7 +4673,7 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
     }
 
     private String getOriginalText(ParserRuleContext context) {
-        return lexer.getInputStream().getText(Interval.of(context.getStart().getStartIndex(), context.getStop().getStopIndex()));
+        return charStream.getText(Interval.of(context.getStart().getStartIndex(), context.getStop().getStopIndex()));
     }
 
     private boolean isTrue(NodeMetaDataHandler nodeMetaDataHandler, String key) {
@@ -4620,13 +4776,17 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
     }
 
     private void removeErrorListeners() {
-        lexer.removeErrorListeners();
+        if (null != lexer) {
+            lexer.removeErrorListeners();
+        }
         parser.removeErrorListeners();
     }
 
     private void addErrorListeners() {
-        lexer.removeErrorListeners();
-        lexer.addErrorListener(this.createANTLRErrorListener());
+        if (null != lexer) { // the tokens passed in are lexed already
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(this.createANTLRErrorListener());
+        }
 
         parser.removeErrorListeners();
         parser.addErrorListener(this.createANTLRErrorListener());
@@ -4672,10 +4832,13 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
 
     private final ModuleNode moduleNode;
     private final SourceUnit sourceUnit;
+    private final CharStream charStream;
     private final GroovyLangLexer lexer;
     private final GroovyLangParser parser;
     private final TryWithResourcesASTTransformation tryWithResourcesASTTransformation;
     private final GroovydocManager groovydocManager;
+    private final boolean signaturesOnly;
+    private final StringPool stringPool;
     private final List<ClassNode> classNodeList = new LinkedList<>();
     private final Deque<ClassNode> classNodeStack = new ArrayDeque<>();
     private final Deque<List<InnerClassNode>> anonymousInnerClassesDefinedInMethodStack = new ArrayDeque<>();
@@ -4687,6 +4850,47 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
     private int visitingAssertStatementCnt;
     private int visitingClosureCnt;
 
+    /**
+     * The key of the optimization option to skip the bodies of methods, closures and lambdas when building the AST,
+     * e.g. for outline views, which need the signatures of classes, fields and methods only.
+     * The bodies are still parsed, and built as empty blocks
+     *
+     * @see CompilerConfiguration#getOptimizationOptions()
+     */
+    public static final String SIGNATURES_ONLY = "signaturesOnly";
+
+    /**
+     * The key of the optimization option to skip the tokens inside method bodies, closures and blocks when parsing,
+     * e.g. for indexing, which needs the package, imports, classes, fields and method headers only.
+     * The braces are matched at the token level, so the bodies are neither parsed nor built, but are empty blocks in the AST
+     *
+     * @see CompilerConfiguration#getOptimizationOptions()
+     */
+    public static final String DECLARATIONS_ONLY = "declarationsOnly";
+
+    /**
+     * The key of the optimization option to share one instance among the equal identifiers and short string literals
+     * of all the source units parsed via the same {@link Antlr4PluginFactory}, e.g. by one {@link org.apache.groovy.parser.Antlr4Parser},
+     * which reduces the memory held by the ASTs of big batches
+     *
+     * @see CompilerConfiguration#getOptimizationOptions()
+     */
+    public static final String INTERN_STRINGS = "internStrings";
+
+    /**
+     * The key of the optimization option to retry LL mode only from the top-level declaration where SLL mode failed,
+     * rather than the whole source. The subtrees parsed by SLL mode before that declaration are kept without being
+     * verified in LL mode, and a failure of the resumed parse is reported without retrying the whole source,
+     * so in rare cases the result may differ from the one of parsing the whole source in LL mode
+     *
+     * @see LlResumer
+     * @see CompilerConfiguration#getOptimizationOptions()
+     */
+    public static final String LL_RESUME = "llResume";
+
+    private static final boolean COMPACT_TOKENS_ENABLED = SystemUtil.getBooleanSafe("groovy.antlr4.compact.tokens");
+    private static final long MMAP_THRESHOLD = SystemUtil.getLongSafe("groovy.antlr4.mmap.threshold", 16L * 1024 * 1024);
+
     private static final String QUESTION_STR = "?";
     private static final String DOT_STR = ".";
     private static final String SUB_STR = "-";
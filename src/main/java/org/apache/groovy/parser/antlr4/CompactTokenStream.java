@@ -0,0 +1,265 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A token stream keeping the fields of tokens in parallel int arrays instead of one {@code CommonToken} per token.
+ *
+ * The lexer reuses one token object while lexing, and the token objects are created only for the tokens
+ * requested by the parser, e.g. the hidden tokens(new lines inside parens, comments) are never materialized.
+ * The text of a token is read from the char stream unless the lexer set its text explicitly.
+ */
+class CompactTokenStream extends CommonTokenStream {
+    private final GroovyLangLexer lexer;
+    private final CompactTokenList compactTokens = new CompactTokenList();
+
+    CompactTokenStream(GroovyLangLexer lexer) {
+        super(lexer);
+        this.lexer = lexer;
+        this.tokens = compactTokens;
+
+        lexer.recycleTokens();
+    }
+
+    @Override
+    public int LA(int i) {
+        if (i <= 0) {
+            return super.LA(i);
+        }
+
+        lazyInit();
+
+        int index = p;
+        for (int n = 1; n < i; n++) {
+            if (sync(index + 1)) {
+                index = nextTokenOnChannel(index + 1, channel);
+            }
+        }
+
+        return compactTokens.types[index];
+    }
+
+    @Override
+    protected int nextTokenOnChannel(int i, int channel) {
+        sync(i);
+        if (i >= size()) {
+            return size() - 1;
+        }
+
+        while (compactTokens.channels[i] != channel) {
+            if (Token.EOF == compactTokens.types[i]) {
+                return i;
+            }
+
+            i++;
+            sync(i);
+        }
+
+        return i;
+    }
+
+    @Override
+    protected int previousTokenOnChannel(int i, int channel) {
+        sync(i);
+        if (i >= size()) {
+            return size() - 1;
+        }
+
+        while (i >= 0) {
+            if (Token.EOF == compactTokens.types[i] || compactTokens.channels[i] == channel) {
+                return i;
+            }
+
+            i--;
+        }
+
+        return i;
+    }
+
+    private class CompactTokenList extends AbstractList<Token> {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private int size;
+        private int[] types = new int[INITIAL_CAPACITY];
+        private int[] channels = new int[INITIAL_CAPACITY];
+        private int[] startIndexes = new int[INITIAL_CAPACITY];
+        private int[] stopIndexes = new int[INITIAL_CAPACITY];
+        private int[] lines = new int[INITIAL_CAPACITY];
+        private int[] columns = new int[INITIAL_CAPACITY];
+        private CompactToken[] views = new CompactToken[INITIAL_CAPACITY];
+        private Map<Integer, String> texts;
+
+        @Override
+        public boolean add(Token token) {
+            if (size == types.length) {
+                int capacity = size << 1;
+                types = Arrays.copyOf(types, capacity);
+                channels = Arrays.copyOf(channels, capacity);
+                startIndexes = Arrays.copyOf(startIndexes, capacity);
+                stopIndexes = Arrays.copyOf(stopIndexes, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                columns = Arrays.copyOf(columns, capacity);
+                views = Arrays.copyOf(views, capacity);
+            }
+
+            // the recycled token has no char stream, so its text is not null only if the lexer set it explicitly
+            if (null == token.getInputStream() && null != token.getText()) {
+                if (null == texts) {
+                    texts = new HashMap<>();
+                }
+                texts.put(size, token.getText());
+            }
+
+            types[size] = token.getType();
+            channels[size] = token.getChannel();
+            startIndexes[size] = token.getStartIndex();
+            stopIndexes[size] = token.getStopIndex();
+            lines[size] = token.getLine();
+            columns[size] = token.getCharPositionInLine();
+            size++;
+            modCount++;
+
+            return true;
+        }
+
+        @Override
+        public Token get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+
+            CompactToken view = views[index];
+            if (null == view) {
+                view = new CompactToken(index);
+                views[index] = view;
+            }
+
+            return view;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(views, 0, size, null);
+            texts = null;
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * A view of the token at the index of the compact token list
+     */
+    private class CompactToken implements Token {
+        private final int index;
+
+        private CompactToken(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getText() {
+            if (null != compactTokens.texts) {
+                String text = compactTokens.texts.get(index);
+                if (null != text) {
+                    return text;
+                }
+            }
+
+            if (Token.EOF == getType()) {
+                return "<EOF>";
+            }
+
+            CharStream input = getInputStream();
+            int n = input.size();
+            int start = getStartIndex();
+            int stop = getStopIndex();
+            if (start < n && stop < n) {
+                return input.getText(Interval.of(start, stop));
+            }
+
+            return "<EOF>";
+        }
+
+        @Override
+        public int getType() {
+            return compactTokens.types[index];
+        }
+
+        @Override
+        public int getLine() {
+            return compactTokens.lines[index];
+        }
+
+        @Override
+        public int getCharPositionInLine() {
+            return compactTokens.columns[index];
+        }
+
+        @Override
+        public int getChannel() {
+            return compactTokens.channels[index];
+        }
+
+        @Override
+        public int getTokenIndex() {
+            return index;
+        }
+
+        @Override
+        public int getStartIndex() {
+            return compactTokens.startIndexes[index];
+        }
+
+        @Override
+        public int getStopIndex() {
+            return compactTokens.stopIndexes[index];
+        }
+
+        @Override
+        public TokenSource getTokenSource() {
+            return lexer;
+        }
+
+        @Override
+        public CharStream getInputStream() {
+            return lexer.getInputStream();
+        }
+
+        @Override
+        public String toString() {
+            return "[@" + index + "," + getStartIndex() + ":" + getStopIndex() + "='" + getText() + "',<" + getType() + ">" + (getChannel() > 0 ? ",channel=" + getChannel() : "") + "," + getLine() + ":" + getCharPositionInLine() + "]";
+        }
+    }
+}
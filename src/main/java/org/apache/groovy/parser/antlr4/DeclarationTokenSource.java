@@ -0,0 +1,144 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+
+/**
+ * Drops the tokens inside the braces which do not enclose a type body, e.g. method bodies, closures and blocks,
+ * so that the parser sees {@code { }} only and never predicts inside them. The braces are matched by counting
+ * {@code LBRACE} and {@code RBRACE} tokens, which include the braces of GString values, e.g. {@code "${...}"}.
+ *
+ * A type body is the first brace following the keyword {@code class}, {@code interface}, {@code enum}
+ * or {@code trait}, which is not a member access, e.g. {@code String.class}.
+ */
+class DeclarationTokenSource implements TokenSource {
+    private final GroovyLangLexer source;
+    private Token pendingToken;
+    private boolean typeBodyExpected;
+    private int lastTokenType = Token.INVALID_TYPE;
+
+    DeclarationTokenSource(GroovyLangLexer source) {
+        this.source = source;
+    }
+
+    @Override
+    public Token nextToken() {
+        if (null != pendingToken) {
+            Token token = pendingToken;
+            pendingToken = null;
+            lastTokenType = token.getType();
+
+            return token;
+        }
+
+        Token token = source.nextToken();
+        if (Token.DEFAULT_CHANNEL != token.getChannel()) {
+            return token;
+        }
+
+        int tokenType = token.getType();
+        if (GroovyLexer.LBRACE == tokenType) {
+            if (typeBodyExpected) {
+                typeBodyExpected = false;
+            } else {
+                pendingToken = skipToMatchingBrace();
+            }
+        } else if (isTypeKeyword(tokenType) && !isMemberAccess(lastTokenType)) {
+            typeBodyExpected = true;
+        }
+
+        lastTokenType = tokenType;
+
+        return token;
+    }
+
+    /**
+     * @return the matching {@code RBRACE}, or {@code EOF} if the braces are unmatched, which will be reported by the parser
+     */
+    private Token skipToMatchingBrace() {
+        for (int depth = 1; ; ) {
+            Token token = source.nextToken();
+
+            switch (token.getType()) {
+                case GroovyLexer.LBRACE:
+                    depth++;
+                    break;
+                case GroovyLexer.RBRACE:
+                    if (0 == --depth) {
+                        return token;
+                    }
+                    break;
+                case Token.EOF:
+                    return token;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private static boolean isTypeKeyword(int tokenType) {
+        return GroovyLexer.CLASS == tokenType
+                || GroovyLexer.INTERFACE == tokenType
+                || GroovyLexer.ENUM == tokenType
+                || GroovyLexer.TRAIT == tokenType;
+    }
+
+    private static boolean isMemberAccess(int tokenType) {
+        return GroovyLexer.DOT == tokenType
+                || GroovyLexer.SAFE_DOT == tokenType
+                || GroovyLexer.SAFE_CHAIN_DOT == tokenType
+                || GroovyLexer.SPREAD_DOT == tokenType
+                || GroovyLexer.METHOD_POINTER == tokenType
+                || GroovyLexer.METHOD_REFERENCE == tokenType;
+    }
+
+    @Override
+    public int getLine() {
+        return source.getLine();
+    }
+
+    @Override
+    public int getCharPositionInLine() {
+        return source.getCharPositionInLine();
+    }
+
+    @Override
+    public CharStream getInputStream() {
+        return source.getInputStream();
+    }
+
+    @Override
+    public String getSourceName() {
+        return source.getSourceName();
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void setTokenFactory(TokenFactory factory) {
+        source.setTokenFactory(factory);
+    }
+
+    @SuppressWarnings("rawtypes")
+    public TokenFactory getTokenFactory() {
+        return source.getTokenFactory();
+    }
+}
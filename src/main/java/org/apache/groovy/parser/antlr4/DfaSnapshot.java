@@ -0,0 +1,262 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import groovy.lang.GroovyClassLoader;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.LexerAtnManager;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A snapshot for warming up the DFA cache of lexer and parser, which saves short-lived processes
+ * from parsing their first scripts with an empty DFA cache.
+ *
+ * The DFA states reference ATN config sets and prediction context graphs, which can not be rebuilt via
+ * the public API of antlr4 runtime, so the snapshot does not contain any DFA state: it records the minimal set
+ * of training sources which populated the DFA cache, and {@link #warmUp()} replays them(lexing and building CST only)
+ * to rebuild the same DFA states. As a result, the snapshot contains the text of the training sources, so it should be
+ * trained on the sources which can be shipped along with it, e.g. the scripts of the application itself.
+ * The snapshot is bound to the hash of the serialized ATNs of lexer and parser, so a stale snapshot is ignored.
+ *
+ * Warming up parses all the recorded sources, so it is up to the application when to call it, e.g. in a background
+ * thread at startup. The replayed parses are not recorded by the DFA cache metrics or {@link SllFallbackReport}.
+ */
+public class DfaSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(DfaSnapshot.class.getName());
+    private static final int MAGIC = 0x47444653; // "GDFS"
+    private static final int VERSION = 1;
+    private static final String SOURCE_NAME = "DfaSnapshot.groovy";
+
+    /**
+     * The hash of the serialized ATNs of lexer and parser
+     */
+    public static final String ATN_HASH = hashAtn(GroovyLangLexer._serializedATN, GroovyLangParser._serializedATN);
+
+    private final List<String> sourceList;
+
+    private DfaSnapshot(List<String> sourceList) {
+        this.sourceList = Collections.unmodifiableList(sourceList);
+    }
+
+    public List<String> getSourceList() {
+        return sourceList;
+    }
+
+    /**
+     * Parse the sources and keep the ones which populate new DFA states
+     */
+    public static DfaSnapshot train(Iterable<? extends CharSequence> sources) {
+        return AtnManager.withClearingSuspended(() -> {
+            GroovyClassLoader classLoader = new GroovyClassLoader();
+            List<String> sourceList = new ArrayList<>();
+
+            long dfaStateCnt = countDfaStates();
+            for (CharSequence source : sources) {
+                String text = source.toString();
+                if (!replay(text, classLoader)) {
+                    continue;
+                }
+
+                long newDfaStateCnt = countDfaStates();
+                if (newDfaStateCnt > dfaStateCnt) {
+                    sourceList.add(text);
+                }
+                dfaStateCnt = newDfaStateCnt;
+            }
+
+            return new DfaSnapshot(sourceList);
+        });
+    }
+
+    /**
+     * Populate the DFA cache by replaying the training sources
+     *
+     * @return the count of DFA states after warming up
+     */
+    public long warmUp() {
+        return AtnManager.withClearingSuspended(() -> {
+            GroovyClassLoader classLoader = new GroovyClassLoader();
+            for (String text : sourceList) {
+                replay(text, classLoader);
+            }
+
+            return countDfaStates();
+        });
+    }
+
+    private static boolean replay(String text, GroovyClassLoader classLoader) {
+        CompilerConfiguration configuration = CompilerConfiguration.DEFAULT;
+        SourceUnit sourceUnit = new SourceUnit(SOURCE_NAME, new TextReaderSource(text, configuration), configuration, classLoader, new ErrorCollector(configuration));
+
+        try {
+            new AstBuilder(sourceUnit, false, false).buildCST(false);
+            return true;
+        } catch (CompilationFailedException e) {
+            return false;
+        }
+    }
+
+    private static long countDfaStates() {
+        return AtnManager.countDfaStates(LexerAtnManager.INSTANCE.getCurrentATN())
+                + AtnManager.countDfaStates(ParserAtnManager.INSTANCE.getCurrentATN());
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        GZIPOutputStream gzos = new GZIPOutputStream(out);
+        DataOutputStream dos = new DataOutputStream(gzos);
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeUTF(ATN_HASH);
+        dos.writeInt(sourceList.size());
+        for (String text : sourceList) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            dos.writeInt(bytes.length);
+            dos.write(bytes);
+        }
+        dos.flush();
+        gzos.finish();
+    }
+
+    public void save(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Read the snapshot
+     *
+     * @return the snapshot, or empty if it is not a snapshot or is stale, i.e. trained against another grammar
+     */
+    public static Optional<DfaSnapshot> readFrom(InputStream in) throws IOException {
+        DataInputStream dis = new DataInputStream(new GZIPInputStream(in));
+        if (MAGIC != dis.readInt() || VERSION != dis.readInt()) {
+            return Optional.empty();
+        }
+
+        if (!ATN_HASH.equals(dis.readUTF())) {
+            return Optional.empty();
+        }
+
+        int sourceCnt = dis.readInt();
+        List<String> sourceList = new ArrayList<>(sourceCnt);
+        for (int i = 0; i < sourceCnt; i++) {
+            byte[] bytes = new byte[dis.readInt()];
+            dis.readFully(bytes);
+            sourceList.add(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        return Optional.of(new DfaSnapshot(sourceList));
+    }
+
+    public static Optional<DfaSnapshot> load(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return readFrom(in);
+        }
+    }
+
+    private static String hashAtn(String... serializedAtns) {
+        CRC32 crc32 = new CRC32();
+        for (String serializedAtn : serializedAtns) {
+            for (int i = 0, n = serializedAtn.length(); i < n; i++) {
+                char c = serializedAtn.charAt(i);
+                crc32.update(c >>> 8);
+                crc32.update(c);
+            }
+        }
+
+        return Long.toHexString(crc32.getValue());
+    }
+
+    /**
+     * Train the snapshot with the groovy sources in the zip files, e.g. the scripts shipped with the application:
+     * {@code DfaSnapshot app-dfa.snapshot app-scripts.zip}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: DfaSnapshot <snapshot file> <zip file>...");
+        }
+
+        List<String> sources = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            try (ZipFile zf = new ZipFile(args[i])) {
+                for (Enumeration<? extends ZipEntry> entries = zf.entries(); entries.hasMoreElements(); ) {
+                    ZipEntry entry = entries.nextElement();
+                    String entryName = entry.getName();
+                    if (entry.isDirectory() || !(entryName.endsWith(".groovy") || entryName.endsWith(".gradle"))) {
+                        continue;
+                    }
+
+                    try (InputStream is = zf.getInputStream(entry)) {
+                        sources.add(readText(is));
+                    }
+                }
+            }
+        }
+
+        Path snapshotPath = Paths.get(args[0]);
+        if (null != snapshotPath.getParent()) {
+            Files.createDirectories(snapshotPath.getParent());
+        }
+
+        DfaSnapshot dfaSnapshot = train(sources);
+        dfaSnapshot.save(snapshotPath);
+
+        LOGGER.info("Trained the DFA snapshot " + snapshotPath + " with " + dfaSnapshot.getSourceList().size() + " of " + sources.size() + " sources");
+    }
+
+    static String readText(InputStream is) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = is.read(buffer)) != -1; ) {
+            baos.write(buffer, 0, n);
+        }
+
+        return new String(baos.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
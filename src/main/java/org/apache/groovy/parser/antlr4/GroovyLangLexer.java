@@ -20,8 +20,10 @@ package org.apache.groovy.parser.antlr4;
 
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
 import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.LexerNoViableAltException;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.atn.ATN;
 import org.antlr.v4.runtime.atn.LexerATNSimulator;
 import org.apache.groovy.parser.antlr4.internal.atnmanager.LexerAtnManager;
@@ -36,6 +38,8 @@ import java.io.Reader;
  * Created on 2016/08/14
  */
 public class GroovyLangLexer extends GroovyLexer {
+    private CommonToken recycledToken;
+
     public GroovyLangLexer(Reader reader) throws IOException {
         this(CharStreams.fromReader(reader));
     }
@@ -46,6 +50,33 @@ public class GroovyLangLexer extends GroovyLexer {
         this.setInterpreter(new PositionAdjustingLexerATNSimulator(this, LexerAtnManager.INSTANCE.getATN()));
     }
 
+    /**
+     * Reuse one token object for all the tokens emitted, which is only safe if the consumer copies the fields
+     * of every token before asking for the next one, e.g. {@link CompactTokenStream}
+     */
+    void recycleTokens() {
+        this.recycledToken = new CommonToken(Token.INVALID_TYPE, null);
+    }
+
+    @Override
+    public Token emit() {
+        if (null == recycledToken) {
+            return super.emit();
+        }
+
+        CommonToken token = recycledToken;
+        token.setType(_type);
+        token.setText(_text);
+        token.setChannel(_channel);
+        token.setStartIndex(_tokenStartCharIndex);
+        token.setStopIndex(getCharIndex() - 1);
+        token.setLine(_tokenStartLine);
+        token.setCharPositionInLine(_tokenStartCharPositionInLine);
+        emit(token);
+
+        return token;
+    }
+
     @Override
     public void recover(LexerNoViableAltException e) {
         throw e; // if some lexical error occurred, stop parsing!
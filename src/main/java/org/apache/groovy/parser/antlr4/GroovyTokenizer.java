@@ -0,0 +1,117 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.Token;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the tokens of groovy source code without parsing, e.g. for syntax highlighting and indexing.
+ * The tokens are not buffered: the lexer(including its mode stack and paren stack) advances only when
+ * the next token is requested. The tokens skipped by the lexer(e.g. white spaces) are not streamed,
+ * while the tokens on the hidden channel(e.g. comments, new lines inside parens) are.
+ *
+ * The lexical errors are thrown as {@link GroovySyntaxError} or {@code LexerNoViableAltException}.
+ */
+public class GroovyTokenizer implements Iterable<Token> {
+    private final CharStream charStream;
+
+    public GroovyTokenizer(String text, String sourceName) {
+        this(StringCharStream.create(text, sourceName));
+    }
+
+    public GroovyTokenizer(CharStream charStream) {
+        this.charStream = charStream;
+    }
+
+    /**
+     * The callback receiving the fields of every token
+     */
+    @FunctionalInterface
+    public interface TokenHandler {
+        /**
+         * @param type the token type, e.g. {@link GroovyLexer#Identifier}
+         * @param channel {@link Token#DEFAULT_CHANNEL} or {@link Token#HIDDEN_CHANNEL}
+         * @param startIndex the index of the first code point of the token
+         * @param stopIndex the index of the last code point of the token
+         * @param line the line of the token, starting from 1
+         * @param column the column of the token, starting from 0
+         */
+        void handle(int type, int channel, int startIndex, int stopIndex, int line, int column);
+    }
+
+    /**
+     * Stream the tokens(excluding EOF) to the handler, which does not create any token object
+     */
+    public void tokenize(TokenHandler handler) {
+        GroovyLangLexer lexer = createLexer();
+        lexer.recycleTokens();
+
+        for (Token token = lexer.nextToken(); Token.EOF != token.getType(); token = lexer.nextToken()) {
+            handler.handle(token.getType(), token.getChannel(), token.getStartIndex(), token.getStopIndex(), token.getLine(), token.getCharPositionInLine());
+        }
+    }
+
+    /**
+     * Iterate the tokens(excluding EOF) lazily
+     */
+    @Override
+    public Iterator<Token> iterator() {
+        GroovyLangLexer lexer = createLexer();
+
+        return new Iterator<Token>() {
+            private Token next; // lexed by hasNext(), and taken by next()
+
+            @Override
+            public boolean hasNext() {
+                if (null == next) {
+                    next = lexer.nextToken();
+                }
+
+                return Token.EOF != next.getType();
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                Token token = next;
+                next = null;
+
+                return token;
+            }
+        };
+    }
+
+    private GroovyLangLexer createLexer() {
+        charStream.seek(0); // the char stream may have been consumed by the previous tokenizing
+
+        return new GroovyLangLexer(charStream);
+    }
+
+    public static String getSymbolicName(int type) {
+        return GroovyLexer.VOCABULARY.getSymbolicName(type);
+    }
+}
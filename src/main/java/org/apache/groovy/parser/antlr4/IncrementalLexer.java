@@ -0,0 +1,419 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.ListTokenSource;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Interval;
+import org.apache.groovy.parser.antlr4.GroovyLexer.LexerState;
+import org.apache.groovy.parser.antlr4.internal.StringCharStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Re-lexes the edited source code incrementally, e.g. for IDE-like usage, which re-lexes on every keystroke.
+ *
+ * The lexer state(modes, parens, last token type, etc.) is captured periodically at token boundaries.
+ * When the text is edited, the lexing is restarted from the nearest checkpoint before the first token affected
+ * by the edit, i.e. the first token whose lookahead reached the edited text, and stopped once the lexer state
+ * is equivalent to the state captured at an old checkpoint after the edit, from which the old tokens are reused.
+ *
+ * The indexes of tokens are code point indexes like the indexes of {@link GroovyTokenizer}, and the tokens
+ * reused after an edit are moved in place, whose text is frozen before moving.
+ */
+public class IncrementalLexer {
+    private static final int CHECKPOINT_INTERVAL = 32;
+    private final String sourceName;
+    private String text;
+    private CharStream charStream;
+    private List<Token> tokens;
+    private int[] lookaheadEnds; // the max index of code points looked at when lexing every token
+    private List<LexerState> states; // the states captured before lexing the tokens, null if not a checkpoint
+
+    public IncrementalLexer(String text, String sourceName) {
+        this.sourceName = sourceName;
+
+        CharStream charStream = StringCharStream.create(text, sourceName);
+        GroovyLangLexer lexer = new GroovyLangLexer(new LookaheadRecordingCharStream(charStream));
+        Relexed relexed = relex(lexer, 0, null, 0, 0, 0);
+
+        this.text = text;
+        this.charStream = charStream;
+        this.tokens = relexed.tokens;
+        this.lookaheadEnds = relexed.lookaheadEnds.toArray();
+        this.states = relexed.states;
+
+        for (int i = 0; i < tokens.size(); i++) {
+            ((CommonToken) tokens.get(i)).setTokenIndex(i);
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return the tokens of the current text, including the EOF token
+     */
+    public List<Token> getTokens() {
+        return Collections.unmodifiableList(tokens);
+    }
+
+    /**
+     * @return the source of the tokens of the current text, whose input stream is the char stream of the current text
+     * rather than the streams of the moved tokens
+     */
+    public TokenSource getTokenSource() {
+        CharStream charStream = this.charStream;
+
+        return new ListTokenSource(getTokens(), sourceName) {
+            @Override
+            public CharStream getInputStream() {
+                return charStream;
+            }
+        };
+    }
+
+    /**
+     * Replace the text in the range, and re-lex the affected tokens.
+     * If the edited text can not be lexed, the lexical error is thrown and the previous text and tokens are kept
+     *
+     * @param offset the char offset of the range
+     * @param length the length of the range in chars
+     * @param replacement the text to replace the range with
+     * @return the changed range of tokens
+     */
+    public TokenChange edit(int offset, int length, String replacement) {
+        if (offset < 0 || length < 0 || offset + length > text.length()) {
+            throw new IndexOutOfBoundsException("Invalid range: offset " + offset + ", length " + length + ", text length " + text.length());
+        }
+
+        String removed = text.substring(offset, offset + length);
+        String newText = text.substring(0, offset) + replacement + text.substring(offset + length);
+
+        int editStart = text.codePointCount(0, offset);
+        int oldEditEnd = editStart + removed.codePointCount(0, removed.length());
+        int newEditEnd = editStart + replacement.codePointCount(0, replacement.length());
+        int charDelta = newEditEnd - oldEditEnd;
+        int lineDelta = countLines(replacement) - countLines(removed);
+
+        // the tokens following the edit on the same line are moved horizontally as well
+        int oldEditEndLine = 1 + countLines(text.substring(0, offset + length));
+        int columnDelta = columnOf(newText, offset + replacement.length()) - columnOf(text, offset + length);
+
+        // the tokens which did not look at the edited text are not affected
+        int affected = 0;
+        while (affected < tokens.size() - 1 && lookaheadEnds[affected] < editStart) {
+            affected++;
+        }
+
+        int restart = affected;
+        while (null == states.get(restart)) {
+            restart--;
+        }
+
+        CharStream newCharStream = StringCharStream.create(newText, sourceName);
+        GroovyLangLexer lexer = new GroovyLangLexer(new LookaheadRecordingCharStream(newCharStream));
+        lexer.restoreState(states.get(restart));
+        Relexed relexed = relex(lexer, restart, states, oldEditEnd, charDelta, lineDelta);
+
+        int resync = relexed.resync;
+        List<Token> newTokens = relexed.tokens;
+
+        // trim the tokens which are not changed actually
+        int prefix = 0;
+        while (prefix < newTokens.size() && restart + prefix < resync
+                && isSameToken(tokens.get(restart + prefix), newTokens.get(prefix), 0, 0, 0)
+                && newTokens.get(prefix).getStopIndex() < editStart) {
+            prefix++;
+        }
+
+        int suffix = 0;
+        while (prefix + suffix < newTokens.size() && restart + prefix + suffix < resync
+                && tokens.get(resync - suffix - 1).getStartIndex() >= oldEditEnd
+                && isSameToken(tokens.get(resync - suffix - 1), newTokens.get(newTokens.size() - suffix - 1), charDelta, lineDelta,
+                                oldEditEndLine == tokens.get(resync - suffix - 1).getLine() ? columnDelta : 0)) {
+            suffix++;
+        }
+
+        int changeStart = restart + prefix;
+        int removedCount = resync - suffix - changeStart;
+        List<Token> insertedTokens = newTokens.subList(prefix, newTokens.size() - suffix);
+
+        List<Token> updatedTokens = new ArrayList<>(tokens.size() - removedCount + insertedTokens.size());
+        updatedTokens.addAll(tokens.subList(0, changeStart));
+        updatedTokens.addAll(insertedTokens);
+        for (int i = resync - suffix; i < tokens.size(); i++) {
+            // the lexer resyncs at the same column, so only the trimmed tokens may be on the line of the edit
+            Token token = tokens.get(i);
+            updatedTokens.add(shift((CommonToken) token, charDelta, lineDelta, i < resync && oldEditEndLine == token.getLine() ? columnDelta : 0));
+        }
+        for (int i = changeStart; i < updatedTokens.size(); i++) {
+            ((CommonToken) updatedTokens.get(i)).setTokenIndex(i);
+        }
+
+        int newCount = newTokens.size();
+        int[] updatedLookaheadEnds = Arrays.copyOf(lookaheadEnds, restart + newCount + tokens.size() - resync);
+        System.arraycopy(relexed.lookaheadEnds.toArray(), 0, updatedLookaheadEnds, restart, newCount);
+
+        List<LexerState> updatedStates = new ArrayList<>(updatedLookaheadEnds.length);
+        updatedStates.addAll(states.subList(0, restart));
+        updatedStates.addAll(relexed.states);
+        for (int i = resync; i < tokens.size(); i++) {
+            updatedLookaheadEnds[restart + newCount + i - resync] = lookaheadEnds[i] + charDelta;
+
+            LexerState state = states.get(i);
+            updatedStates.add(null == state ? null : state.shift(charDelta, lineDelta));
+        }
+
+        this.text = newText;
+        this.charStream = newCharStream;
+        this.tokens = updatedTokens;
+        this.lookaheadEnds = updatedLookaheadEnds;
+        this.states = updatedStates;
+
+        return new TokenChange(changeStart, removedCount, insertedTokens);
+    }
+
+    /**
+     * Lex from the restored state until EOF, or until the state is equivalent to an old checkpoint after the edit
+     */
+    private static Relexed relex(GroovyLangLexer lexer, int startIndex, List<LexerState> oldStates, int oldEditEnd, int charDelta, int lineDelta) {
+        LookaheadRecordingCharStream input = (LookaheadRecordingCharStream) lexer.getInputStream();
+        Relexed relexed = new Relexed();
+        int oldSize = null == oldStates ? 0 : oldStates.size();
+        int checkpoint = nextCheckpoint(oldStates, startIndex + 1, oldEditEnd);
+
+        for (int index = startIndex; ; index++) {
+            LexerState state = lexer.captureState();
+
+            while (checkpoint < oldSize && oldStates.get(checkpoint).getCharIndex() + charDelta < state.getCharIndex()) {
+                checkpoint = nextCheckpoint(oldStates, checkpoint + 1, oldEditEnd);
+            }
+            if (checkpoint < oldSize) {
+                LexerState oldState = oldStates.get(checkpoint);
+
+                if (oldState.getCharIndex() + charDelta == state.getCharIndex()
+                        && oldState.getLine() + lineDelta == state.getLine()
+                        && oldState.isEquivalent(state)) {
+                    relexed.resync = checkpoint;
+                    return relexed;
+                }
+            }
+
+            input.resetLookahead();
+            Token token = lexer.nextToken();
+
+            relexed.tokens.add(token);
+            relexed.lookaheadEnds.add(Math.max(input.getLookaheadEnd(), token.getStopIndex()));
+            relexed.states.add(0 == index % CHECKPOINT_INTERVAL || index == startIndex ? state : null);
+
+            if (Token.EOF == token.getType()) {
+                relexed.resync = oldSize;
+                return relexed;
+            }
+        }
+    }
+
+    private static int nextCheckpoint(List<LexerState> states, int from, int oldEditEnd) {
+        if (null == states) {
+            return 0;
+        }
+
+        int i = from;
+        while (i < states.size() && (null == states.get(i) || states.get(i).getCharIndex() < oldEditEnd)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean isSameToken(Token oldToken, Token newToken, int charDelta, int lineDelta, int columnDelta) {
+        return oldToken.getType() == newToken.getType()
+                && oldToken.getChannel() == newToken.getChannel()
+                && oldToken.getStartIndex() + charDelta == newToken.getStartIndex()
+                && oldToken.getStopIndex() + charDelta == newToken.getStopIndex()
+                && oldToken.getLine() + lineDelta == newToken.getLine()
+                && oldToken.getCharPositionInLine() + columnDelta == newToken.getCharPositionInLine();
+    }
+
+    private static Token shift(CommonToken token, int charDelta, int lineDelta, int columnDelta) {
+        if (0 == charDelta && 0 == lineDelta && 0 == columnDelta) {
+            return token;
+        }
+
+        token.setText(token.getText()); // the text can not be got from the old char stream after moving
+        token.setStartIndex(token.getStartIndex() + charDelta);
+        token.setStopIndex(token.getStopIndex() + charDelta);
+        token.setLine(token.getLine() + lineDelta);
+        token.setCharPositionInLine(token.getCharPositionInLine() + columnDelta);
+
+        return token;
+    }
+
+    /**
+     * @return the count of code points between the start of the line and the char offset
+     */
+    private static int columnOf(String text, int offset) {
+        int lineStart = text.lastIndexOf('\n', offset - 1) + 1;
+        return text.codePointCount(lineStart, offset);
+    }
+
+    private static int countLines(String text) {
+        int count = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if ('\n' == text.charAt(i)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * The changed range of tokens after an edit: {@code removedCount} tokens starting from {@code startIndex}
+     * in the previous token list are replaced with {@code tokens}
+     */
+    public static final class TokenChange {
+        private final int startIndex;
+        private final int removedCount;
+        private final List<Token> tokens;
+
+        private TokenChange(int startIndex, int removedCount, List<Token> tokens) {
+            this.startIndex = startIndex;
+            this.removedCount = removedCount;
+            this.tokens = Collections.unmodifiableList(new ArrayList<>(tokens));
+        }
+
+        public int getStartIndex() {
+            return startIndex;
+        }
+
+        public int getRemovedCount() {
+            return removedCount;
+        }
+
+        public List<Token> getTokens() {
+            return tokens;
+        }
+
+        @Override
+        public String toString() {
+            return "TokenChange{startIndex=" + startIndex + ", removedCount=" + removedCount + ", tokens=" + tokens + '}';
+        }
+    }
+
+    private static class Relexed {
+        private final List<Token> tokens = new ArrayList<>();
+        private final IntList lookaheadEnds = new IntList();
+        private final List<LexerState> states = new ArrayList<>();
+        private int resync;
+    }
+
+    private static class IntList {
+        private int[] values = new int[64];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size << 1);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Records the max index of code points looked at by the lexer, which includes the lookahead beyond the tokens
+     */
+    private static class LookaheadRecordingCharStream implements CharStream {
+        private final CharStream delegate;
+        private int lookaheadEnd;
+
+        LookaheadRecordingCharStream(CharStream delegate) {
+            this.delegate = delegate;
+        }
+
+        void resetLookahead() {
+            lookaheadEnd = -1;
+        }
+
+        int getLookaheadEnd() {
+            return lookaheadEnd;
+        }
+
+        @Override
+        public int LA(int i) {
+            if (i > 0) {
+                lookaheadEnd = Math.max(lookaheadEnd, delegate.index() + i - 1);
+            }
+
+            return delegate.LA(i);
+        }
+
+        @Override
+        public void consume() {
+            delegate.consume();
+        }
+
+        @Override
+        public int mark() {
+            return delegate.mark();
+        }
+
+        @Override
+        public void release(int marker) {
+            delegate.release(marker);
+        }
+
+        @Override
+        public int index() {
+            return delegate.index();
+        }
+
+        @Override
+        public void seek(int index) {
+            delegate.seek(index);
+        }
+
+        @Override
+        public int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public String getSourceName() {
+            return delegate.getSourceName();
+        }
+
+        @Override
+        public String getText(Interval interval) {
+            return delegate.getText(interval);
+        }
+    }
+}
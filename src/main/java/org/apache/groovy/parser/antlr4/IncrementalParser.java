@@ -0,0 +1,278 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import groovy.lang.GroovyClassLoader;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.apache.groovy.parser.antlr4.internal.DescriptiveErrorStrategy;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassBodyContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassBodyDeclarationContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassDeclarationContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.CompilationUnitContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.GroovyParserRuleContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ScriptStatementContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ScriptStatementsContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.TypeDeclarationContext;
+
+/**
+ * Re-parses the edited source code incrementally, e.g. for IDE-like usage.
+ *
+ * The tokens are re-lexed by {@link IncrementalLexer}. If the changed tokens are inside one top-level declaration,
+ * i.e. a member of a top-level class or a script statement, only the declaration is re-parsed and spliced into
+ * the previous parse tree, whose other subtrees are kept with their tokens moved in place. Otherwise, the whole
+ * source code is parsed again.
+ *
+ * Only the parsing is incremental. The AST is built from the whole parse tree, because the AST nodes are
+ * mutable(e.g. transformed by the later compile phases) and named by their order(e.g. anonymous inner classes),
+ * so the module node is the same as the one of a full parse. The AST is built lazily when the module node is
+ * requested, so its cost is paid once for a series of edits rather than on every edit, e.g. every keystroke.
+ *
+ * The splicing assumes the decisions made before a declaration are decided by its first token(i.e. the separators
+ * before a member or a statement are followed by the first token of another one or by the closing brace), so the
+ * changed tokens must follow the first token of the re-parsed declaration, and the re-parsed declaration must end
+ * at the same token as before. If the member of a class does not, the whole top-level class is tried before the
+ * whole source code. The spliced results are checked against full parses over the test corpora.
+ */
+public class IncrementalParser {
+    private final String sourceName;
+    private final CompilerConfiguration configuration;
+    private final GroovyClassLoader classLoader = new GroovyClassLoader();
+    private final IncrementalLexer lexer;
+    private CompilationUnitContext compilationUnit;
+    private ModuleNode moduleNode;
+    private boolean metaDataSet; // whether the AST builder has set the node meta data of the parse tree
+    private boolean reparsed;
+
+    /**
+     * Parse the source code, whose syntax errors are thrown as {@code CompilationFailedException}
+     */
+    public IncrementalParser(String text, String sourceName, CompilerConfiguration configuration) {
+        this.sourceName = sourceName;
+        this.configuration = configuration;
+        this.lexer = new IncrementalLexer(text, sourceName);
+        parse();
+    }
+
+    public String getText() {
+        return lexer.getText();
+    }
+
+    /**
+     * Build the AST of the current source code if it is not built since the last edit.
+     * The errors found when building the AST are thrown as {@code CompilationFailedException}
+     *
+     * @return the module node of the current source code
+     */
+    public ModuleNode getModuleNode() {
+        if (null != moduleNode) {
+            return moduleNode;
+        }
+
+        if (metaDataSet) {
+            clearMetaData(compilationUnit); // the node meta data are set by the AST builder on the previous build
+        }
+
+        metaDataSet = true;
+        moduleNode = createAstBuilder().buildAST(compilationUnit);
+
+        return moduleNode;
+    }
+
+    /**
+     * @return whether the last edit was re-parsed incrementally rather than parsing the whole source code
+     */
+    public boolean isReparsed() {
+        return reparsed;
+    }
+
+    /**
+     * Replace the text in the range, and re-parse the affected declaration. The AST is built by {@link #getModuleNode()}.
+     * The lexical errors are thrown as {@link IncrementalLexer#edit(int, int, String)} does, and the syntax errors
+     * are thrown as {@code CompilationFailedException} after which the whole source code will be parsed on the next edit
+     *
+     * @param offset the char offset of the range
+     * @param length the length of the range in chars
+     * @param replacement the text to replace the range with
+     */
+    public void edit(int offset, int length, String replacement) {
+        IncrementalLexer.TokenChange change = lexer.edit(offset, length, replacement);
+
+        moduleNode = null;
+        reparsed = null != compilationUnit && reparse(change);
+        if (!reparsed) {
+            parse();
+        }
+    }
+
+    private void parse() {
+        compilationUnit = null;
+        metaDataSet = false;
+        compilationUnit = (CompilationUnitContext) createAstBuilder().buildCST();
+    }
+
+    private AstBuilder createAstBuilder() {
+        SourceUnit sourceUnit = new SourceUnit(sourceName, new TextReaderSource(lexer.getText(), configuration), configuration, classLoader, new ErrorCollector(configuration));
+
+        return new AstBuilder(sourceUnit, configuration.isGroovydocEnabled(), configuration.isRuntimeGroovydocEnabled(), lexer.getTokenSource());
+    }
+
+    /**
+     * Re-parse the innermost top-level declaration containing the changed tokens, and splice it into the previous parse tree
+     *
+     * @return {@code false} if the whole source code has to be parsed
+     */
+    private boolean reparse(IncrementalLexer.TokenChange change) {
+        List<Token> tokens = lexer.getTokens();
+
+        CommonTokenStream tokenStream = new CommonTokenStream(lexer.getTokenSource());
+        GroovyLangParser parser = new GroovyLangParser(tokenStream);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new DescriptiveErrorStrategy(tokenStream.getTokenSource().getInputStream()));
+
+        for (GroovyParserRuleContext declaration : findDeclarations(compilationUnit, tokens, change)) {
+            if (reparse(parser, declaration)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean reparse(GroovyLangParser parser, GroovyParserRuleContext declaration) {
+        ParserRuleContext parent = declaration.getParent();
+        int childCount = parent.getChildCount();
+
+        for (PredictionMode predictionMode : new PredictionMode[] {PredictionMode.SLL, PredictionMode.LL}) {
+            parser.getInterpreter().setPredictionMode(predictionMode);
+            parser.getErrorHandler().reset(parser);
+            parser.getInputStream().seek(declaration.start.getTokenIndex());
+            parser.setContext(parent);
+            parser.setState(declaration.invokingState);
+
+            GroovyParserRuleContext result;
+            try {
+                result = declaration instanceof ClassBodyDeclarationContext
+                        ? parser.classBodyDeclaration(((ClassBodyDeclarationContext) declaration).t)
+                        : parser.scriptStatement();
+            } catch (ParseCancellationException e) {
+                result = null;
+            }
+
+            // the new subtree has been appended to the parent
+            while (parent.getChildCount() > childCount) {
+                parent.removeLastChild();
+            }
+            for (ParserRuleContext ctx = parent; null != ctx; ctx = ctx.getParent()) {
+                ctx.exception = null;
+            }
+            parser.setContext(null);
+
+            if (null == result) {
+                continue;
+            }
+
+            if (null != result.exception || declaration.stop != result.stop) {
+                return false; // the declaration is not confined to the previous range any more
+            }
+
+            parent.children.set(parent.children.indexOf(declaration), result);
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Find the top-level declarations whose first and last tokens are kept by the change, the innermost first
+     */
+    private static List<GroovyParserRuleContext> findDeclarations(CompilationUnitContext compilationUnit, List<Token> tokens, IncrementalLexer.TokenChange change) {
+        List<GroovyParserRuleContext> result = new ArrayList<>(2);
+        ScriptStatementsContext scriptStatements = compilationUnit.scriptStatements();
+        if (null == scriptStatements) {
+            return result;
+        }
+
+        for (ScriptStatementContext scriptStatement : scriptStatements.scriptStatement()) {
+            if (!contains(scriptStatement, tokens, change)) {
+                continue;
+            }
+
+            TypeDeclarationContext typeDeclaration = scriptStatement.typeDeclaration();
+            ClassDeclarationContext classDeclaration = null == typeDeclaration ? null : typeDeclaration.classDeclaration();
+            ClassBodyContext classBody = null == classDeclaration ? null : classDeclaration.classBody();
+
+            if (null != classBody) {
+                for (ClassBodyDeclarationContext member : classBody.classBodyDeclaration()) {
+                    if (contains(member, tokens, change)) {
+                        result.add(member);
+                        break;
+                    }
+                }
+            }
+
+            result.add(scriptStatement);
+            break;
+        }
+
+        return result;
+    }
+
+    private static boolean contains(ParserRuleContext ctx, List<Token> tokens, IncrementalLexer.TokenChange change) {
+        int stopIndex = ctx.stop.getTokenIndex();
+
+        return ctx.start.getTokenIndex() < change.getStartIndex()
+                && stopIndex >= change.getStartIndex() + change.getTokens().size()
+                && stopIndex < tokens.size() && tokens.get(stopIndex) == ctx.stop; // the last token is not replaced
+    }
+
+    private static void clearMetaData(ParserRuleContext root) {
+        Deque<ParserRuleContext> pending = new ArrayDeque<>();
+        pending.push(root);
+
+        while (!pending.isEmpty()) {
+            ParserRuleContext ctx = pending.pop();
+            if (ctx instanceof GroovyParserRuleContext) {
+                ((GroovyParserRuleContext) ctx).setMetaDataMap(null);
+            }
+
+            for (int i = 0, n = ctx.getChildCount(); i < n; i++) {
+                ParseTree child = ctx.getChild(i);
+                if (child instanceof ParserRuleContext) {
+                    pending.push((ParserRuleContext) child);
+                }
+            }
+        }
+    }
+}
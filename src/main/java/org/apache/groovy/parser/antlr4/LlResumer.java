@@ -0,0 +1,272 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.RuleStopState;
+import org.antlr.v4.runtime.atn.RuleTransition;
+import org.antlr.v4.runtime.atn.Transition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassBodyContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassBodyDeclarationContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ClassDeclarationContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.CompilationUnitContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ScriptStatementContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.ScriptStatementsContext;
+import static org.apache.groovy.parser.antlr4.GroovyParser.TypeDeclarationContext;
+
+/**
+ * Resumes a failed SLL parse in LL mode from the nearest enclosing top-level declaration,
+ * i.e. the member of a top-level class or the script statement containing the failure,
+ * so that the subtrees completed by SLL before that declaration are kept rather than re-parsed.
+ *
+ * The parser continues with the real outer contexts of the partial SLL parse tree, so full-context
+ * predictions see the same rule invocation stack as a parse from the start of the file.
+ *
+ * The guarantee is weaker than the one of parsing the whole file in LL mode: the kept subtrees are not
+ * verified in LL mode, and SLL mode may have completed them with alternatives LL mode would not choose,
+ * in which case the resumed parse may fail or differ from a whole-file LL parse. Resuming is therefore
+ * enabled only via {@link AstBuilder#LL_RESUME}.
+ */
+class LlResumer {
+    private static final ListRule SCRIPT_STATEMENTS = ListRule.of(GroovyParser._ATN, GroovyParser.RULE_scriptStatements, GroovyParser.RULE_scriptStatement);
+    private static final ListRule CLASS_BODY = ListRule.of(GroovyParser._ATN, GroovyParser.RULE_classBody, GroovyParser.RULE_classBodyDeclaration);
+
+    private final GroovyLangParser parser;
+
+    LlResumer(GroovyLangParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Resume parsing in LL mode
+     *
+     * @param failedContext the innermost context when the SLL parse failed
+     * @return the parse tree, or {@code null} if the failure is not inside a top-level declaration
+     */
+    CompilationUnitContext resume(ParserRuleContext failedContext) {
+        ScriptStatementContext scriptStatement = null;
+        ClassBodyDeclarationContext member = null;
+
+        for (ParserRuleContext ctx = failedContext; null != ctx; ctx = ctx.getParent()) {
+            if (ctx instanceof ClassBodyDeclarationContext && null == member && isTopLevelMember((ClassBodyDeclarationContext) ctx)) {
+                member = (ClassBodyDeclarationContext) ctx;
+            } else if (ctx instanceof ScriptStatementContext && ctx.getParent() instanceof ScriptStatementsContext) {
+                scriptStatement = (ScriptStatementContext) ctx;
+            }
+        }
+
+        if (null == scriptStatement) {
+            return null;
+        }
+
+        ScriptStatementsContext scriptStatements = (ScriptStatementsContext) scriptStatement.getParent();
+        CompilationUnitContext compilationUnit = (CompilationUnitContext) scriptStatements.getParent();
+
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+        parser.getErrorHandler().reset(parser);
+
+        if (null != member) {
+            ClassBodyContext classBody = (ClassBodyContext) member.getParent();
+            final int t = member.t;
+
+            reopen(member);
+            parser.classBodyDeclaration(t);
+            continueList(CLASS_BODY, GroovyParser.RBRACE, () -> parser.classBodyDeclaration(t));
+            parser.match(GroovyParser.RBRACE);
+
+            // the class body is the last element of the class declaration, type declaration and script statement
+            Token stop = parser.getInputStream().LT(-1);
+            for (ParserRuleContext ctx = classBody; scriptStatements != ctx; ctx = ctx.getParent()) {
+                ctx.stop = stop;
+            }
+            parser.setContext(scriptStatements);
+        } else {
+            reopen(scriptStatement);
+            parser.scriptStatement();
+        }
+
+        continueList(SCRIPT_STATEMENTS, Token.EOF, parser::scriptStatement);
+        scriptStatements.stop = parser.getInputStream().LT(-1);
+
+        parser.setContext(compilationUnit);
+        parser.match(Token.EOF);
+        compilationUnit.stop = parser.getInputStream().LT(-1);
+        parser.setContext(null);
+
+        return compilationUnit;
+    }
+
+    private static boolean isTopLevelMember(ClassBodyDeclarationContext member) {
+        ParserRuleContext ctx = member.getParent();
+
+        return ctx instanceof ClassBodyContext
+                && (ctx = ctx.getParent()) instanceof ClassDeclarationContext
+                && (ctx = ctx.getParent()) instanceof TypeDeclarationContext
+                && (ctx = ctx.getParent()) instanceof ScriptStatementContext
+                && ctx.getParent() instanceof ScriptStatementsContext;
+    }
+
+    /**
+     * Drop the failed subtree and rewind the parser to the state right before the subtree was entered
+     */
+    private void reopen(ParserRuleContext failed) {
+        ParserRuleContext parent = failed.getParent();
+
+        // the SLL parse stopped inside `failed`, so it must be the last child of its parent
+        parent.removeLastChild();
+        for (ParserRuleContext ctx = parent; null != ctx; ctx = ctx.getParent()) {
+            ctx.exception = null;
+        }
+
+        parser.getInputStream().seek(failed.start.getTokenIndex());
+        parser.setContext(parent);
+        parser.setState(failed.invokingState);
+    }
+
+    /**
+     * Parse the rest of {@code element (sep element)* sep?} until the token that follows the list
+     */
+    private void continueList(ListRule rule, int followingTokenType, Runnable element) {
+        TokenStream input = parser.getInputStream();
+
+        while (input.LA(1) != followingTokenType) {
+            boolean trailing = isTrailingSep(input, followingTokenType);
+
+            parser.setState(trailing ? rule.trailingSepState : rule.loopSepState);
+            parser.sep();
+
+            if (trailing) {
+                break;
+            }
+
+            parser.setState(rule.loopElementState);
+            element.run();
+        }
+    }
+
+    private static boolean isTrailingSep(TokenStream input, int followingTokenType) {
+        int i = 1;
+        for (int type = input.LA(i); GroovyParser.NL == type || GroovyParser.SEMI == type; type = input.LA(i)) {
+            i++;
+        }
+
+        return input.LA(i) == followingTokenType;
+    }
+
+    /**
+     * The ATN states invoking the sub-rules of a rule like {@code element (sep element)* sep?}
+     */
+    private static class ListRule {
+        private int loopSepState = ATNState.INVALID_STATE_NUMBER;
+        private int trailingSepState = ATNState.INVALID_STATE_NUMBER;
+        private int loopElementState = ATNState.INVALID_STATE_NUMBER;
+
+        static ListRule of(ATN atn, int ruleIndex, int elementRuleIndex) {
+            ListRule listRule = new ListRule();
+
+            for (ATNState state : atn.states) {
+                if (null == state || state.ruleIndex != ruleIndex) {
+                    continue;
+                }
+
+                RuleTransition elementCall = findRuleTransition(state, elementRuleIndex);
+                if (null == elementCall) {
+                    continue;
+                }
+
+                // the separators following an element are either the one of the loop or the trailing one
+                for (ATNState sepState : findInvokingStates(elementCall.followState, GroovyParser.RULE_sep)) {
+                    RuleTransition sepCall = findRuleTransition(sepState, GroovyParser.RULE_sep);
+                    List<ATNState> loopElementStates = findInvokingStates(sepCall.followState, elementRuleIndex);
+
+                    if (loopElementStates.isEmpty()) {
+                        listRule.trailingSepState = sepState.stateNumber;
+                    } else {
+                        listRule.loopSepState = sepState.stateNumber;
+                        listRule.loopElementState = loopElementStates.get(0).stateNumber;
+                    }
+                }
+            }
+
+            if (ATNState.INVALID_STATE_NUMBER == listRule.loopSepState
+                    || ATNState.INVALID_STATE_NUMBER == listRule.trailingSepState
+                    || ATNState.INVALID_STATE_NUMBER == listRule.loopElementState) {
+                throw new IllegalStateException("Rule " + GroovyParser.ruleNames[ruleIndex] + " does not match `element (sep element)* sep?`");
+            }
+
+            return listRule;
+        }
+
+        private static RuleTransition findRuleTransition(ATNState state, int calleeRuleIndex) {
+            for (int i = 0, n = state.getNumberOfTransitions(); i < n; i++) {
+                Transition transition = state.transition(i);
+
+                if (transition instanceof RuleTransition && transition.target.ruleIndex == calleeRuleIndex) {
+                    return (RuleTransition) transition;
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Find the states invoking the callee rule, which are reachable from the start state without consuming any token
+         */
+        private static List<ATNState> findInvokingStates(ATNState start, int calleeRuleIndex) {
+            List<ATNState> result = new ArrayList<>();
+            BitSet visited = new BitSet();
+            Deque<ATNState> pending = new ArrayDeque<>();
+            pending.push(start);
+
+            while (!pending.isEmpty()) {
+                ATNState state = pending.pop();
+                if (visited.get(state.stateNumber) || state instanceof RuleStopState) {
+                    continue;
+                }
+                visited.set(state.stateNumber);
+
+                for (int i = 0, n = state.getNumberOfTransitions(); i < n; i++) {
+                    Transition transition = state.transition(i);
+
+                    if (transition instanceof RuleTransition) {
+                        if (transition.target.ruleIndex == calleeRuleIndex) {
+                            result.add(state);
+                        }
+                    } else if (transition.isEpsilon()) {
+                        pending.push(transition.target);
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+}
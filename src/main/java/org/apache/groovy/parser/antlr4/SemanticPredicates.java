@@ -21,13 +21,10 @@ package org.apache.groovy.parser.antlr4;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
-import org.antlr.v4.runtime.tree.ParseTree;
 import org.codehaus.groovy.GroovyBugError;
 import org.codehaus.groovy.ast.ModifierNode;
 
 import java.util.Arrays;
-import java.util.List;
-import java.util.regex.Pattern;
 
 import static org.apache.groovy.parser.antlr4.GroovyParser.ASSIGN;
 import static org.apache.groovy.parser.antlr4.GroovyParser.BuiltInPrimitiveType;
@@ -38,25 +35,30 @@ import static org.apache.groovy.parser.antlr4.GroovyParser.Identifier;
 import static org.apache.groovy.parser.antlr4.GroovyParser.LBRACK;
 import static org.apache.groovy.parser.antlr4.GroovyParser.LPAREN;
 import static org.apache.groovy.parser.antlr4.GroovyParser.LT;
-import static org.apache.groovy.parser.antlr4.GroovyParser.PathExpressionContext;
 import static org.apache.groovy.parser.antlr4.GroovyParser.PostfixExprAltContext;
 import static org.apache.groovy.parser.antlr4.GroovyParser.PostfixExpressionContext;
 import static org.apache.groovy.parser.antlr4.GroovyParser.StringLiteral;
-import static org.apache.groovy.parser.antlr4.util.StringUtils.matches;
 
 /**
  * Some semantic predicates for altering the behaviour of the lexer and parser
  */
 public class SemanticPredicates {
-    private static final Pattern NONSPACES_PATTERN = Pattern.compile("\\S+?");
-    private static final Pattern LETTER_AND_LEFTCURLY_PATTERN = Pattern.compile("[a-zA-Z_{]");
-    private static final Pattern NONSURROGATE_PATTERN = Pattern.compile("[^\u0000-\u007F\uD800-\uDBFF]");
-    private static final Pattern SURROGATE_PAIR1_PATTERN = Pattern.compile("[\uD800-\uDBFF]");
-    private static final Pattern SURROGATE_PAIR2_PATTERN = Pattern.compile("[\uDC00-\uDFFF]");
+    private static final boolean[] WHITESPACE_TABLE = new boolean[128];
+    private static final boolean[] GSTRING_PATH_START_TABLE = new boolean[128];
+    static {
+        for (char c : " \t\n\u000B\f\r".toCharArray()) {
+            WHITESPACE_TABLE[c] = true;
+        }
+
+        for (char c = 0; c < 128; c++) {
+            GSTRING_PATH_START_TABLE[c] = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || '_' == c || '{' == c;
+        }
+    }
 
     public static boolean isFollowedByWhiteSpaces(CharStream cs) {
         for (int index = 1, c = cs.LA(index); !('\r' == c || '\n' == c || CharStream.EOF == c); index++, c = cs.LA(index)) {
-            if (matches(String.valueOf((char) c), NONSPACES_PATTERN)) {
+            char ch = (char) c;
+            if (ch >= 128 || !WHITESPACE_TABLE[ch]) { // the spaces of regex, i.e. [ \t\n\x0B\f\r]
                 return false;
             }
         }
@@ -83,28 +85,20 @@ public class SemanticPredicates {
             return false;
         }
 
-        String str1 = String.valueOf((char) c1);
+        char ch1 = (char) c1;
 
-        if (matches(str1, LETTER_AND_LEFTCURLY_PATTERN)) {
-            return true;
+        if (ch1 < 128) {
+            return GSTRING_PATH_START_TABLE[ch1];
         }
 
-        if (matches(str1, NONSURROGATE_PATTERN)
-                && Character.isJavaIdentifierPart(c1)) {
-            return true;
+        if (!Character.isHighSurrogate(ch1)) {
+            return Character.isJavaIdentifierPart(c1);
         }
 
-        int c2 = cs.LA(2);
-        String str2 = String.valueOf((char) c2);
-
-        if (matches(str1, SURROGATE_PAIR1_PATTERN)
-                && matches(str2, SURROGATE_PAIR2_PATTERN)
-                && Character.isJavaIdentifierPart(Character.toCodePoint((char) c1, (char) c2))) {
-
-            return true;
-        }
+        char ch2 = (char) cs.LA(2);
 
-        return false;
+        return Character.isLowSurrogate(ch2)
+                && Character.isJavaIdentifierPart(Character.toCodePoint(ch1, ch2));
     }
 
     /**
@@ -115,21 +109,15 @@ public class SemanticPredicates {
      */
     public static boolean isFollowingArgumentsOrClosure(ExpressionContext context) {
         if (context instanceof PostfixExprAltContext) {
-            List<ParseTree> peacChildren = ((PostfixExprAltContext) context).children;
-
-            try {
-                ParseTree peacChild = peacChildren.get(0);
-                List<ParseTree>  pecChildren = ((PostfixExpressionContext) peacChild).children;
-
-                ParseTree pecChild = pecChildren.get(0);
-                PathExpressionContext pec = (PathExpressionContext) pecChild;
+            // the kind of the last path element is recorded while parsing the postfix expression
+            PostfixExpressionContext pe = ((PostfixExprAltContext) context).pe;
+            if (null == pe) {
+                throw new GroovyBugError("Unexpected structure of expression context: " + context);
+            }
 
-                int t = pec.t;
+            int t = pe.t;
 
-                return (2 == t || 3 == t);
-            } catch (IndexOutOfBoundsException | ClassCastException e) {
-                throw new GroovyBugError("Unexpected structure of expression context: " + context, e);
-            }
+            return (2 == t || 3 == t);
         }
 
         return false;
@@ -180,10 +168,11 @@ public class SemanticPredicates {
         tokenType = token.getType();
         tokenType3 = ts.LT(index + 2).getType();
 
+        // check the token types first, the text is got only if necessary
         return // VOID == tokenType ||
-                !(BuiltInPrimitiveType == tokenType || Arrays.binarySearch(MODIFIER_ARRAY, tokenType) >= 0)
-                        && Character.isLowerCase(token.getText().codePointAt(0))
-                        && !(ASSIGN == tokenType3 || (LT == tokenType2 || LBRACK == tokenType2));
+                !(BuiltInPrimitiveType == tokenType || CapitalizedIdentifier == tokenType || Arrays.binarySearch(MODIFIER_ARRAY, tokenType) >= 0)
+                        && !(ASSIGN == tokenType3 || (LT == tokenType2 || LBRACK == tokenType2))
+                        && Character.isLowerCase(token.getText().codePointAt(0));
 
     }
 
@@ -0,0 +1,308 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import groovy.lang.GroovyClassLoader;
+import org.antlr.v4.runtime.NoViableAltException;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource;
+import org.apache.groovy.util.SystemUtil;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Records the grammar decisions where SLL mode failed and parsing fell back to LL mode,
+ * and aggregates them into a report, so that the hot spots of the grammar can be found with real workloads.
+ *
+ * Recording is off by default. The system property {@code groovy.antlr4.sll.fallback.report} specifies
+ * the report file to write when JVM exits, which also turns recording on.
+ */
+public class SllFallbackReport {
+    private static final Logger LOGGER = Logger.getLogger(SllFallbackReport.class.getName());
+    private static final String SLL_FALLBACK_REPORT_OPT = "groovy.antlr4.sll.fallback.report";
+    private static final int MAX_SAMPLE_CNT = 5;
+
+    public static final SllFallbackReport INSTANCE = new SllFallbackReport();
+
+    static {
+        String reportFile = SystemUtil.getSystemPropertySafe(SLL_FALLBACK_REPORT_OPT);
+        if (null != reportFile) {
+            INSTANCE.setEnabled(true);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    INSTANCE.save(Paths.get(reportFile));
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Failed to write the SLL fallback report " + reportFile, e);
+                }
+            }));
+        }
+    }
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder parsedCnt = new LongAdder();
+    private volatile boolean enabled;
+
+    private SllFallbackReport() {}
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    void onParsed() {
+        parsedCnt.increment();
+    }
+
+    /**
+     * Record the failure of SLL mode
+     *
+     * @param sourceName the name of the source being parsed
+     * @param parser the parser which failed
+     * @param failedContext the innermost context when parsing was cancelled, or {@code null} if unknown
+     * @param e the exception which cancelled parsing, or {@code null} if unknown
+     */
+    void record(String sourceName, Parser parser, ParserRuleContext failedContext, RecognitionException e) {
+        int decision = -1;
+        String ruleName = "<unknown>";
+        String exceptionName = null == e ? "<unknown>" : e.getClass().getSimpleName();
+        Token token = null;
+
+        if (null != e) {
+            int stateNumber = e.getOffendingState();
+            if (stateNumber >= 0 && stateNumber < parser.getATN().states.size()) {
+                ATNState state = parser.getATN().states.get(stateNumber);
+                if (state instanceof DecisionState) {
+                    decision = ((DecisionState) state).decision;
+                }
+            }
+
+            // the prediction starts from the start token, which is more helpful to locate the ambiguous construct
+            token = e instanceof NoViableAltException ? ((NoViableAltException) e).getStartToken() : e.getOffendingToken();
+        }
+
+        if (null != failedContext) {
+            ruleName = parser.getRuleNames()[failedContext.getRuleIndex()];
+        }
+
+        String position = null == token ? sourceName : sourceName + ":" + token.getLine() + ":" + (token.getCharPositionInLine() + 1);
+
+        entries.computeIfAbsent(new Key(decision, ruleName, exceptionName), Entry::new).add(position);
+    }
+
+    /**
+     * @return the recorded fallbacks, sorted by count descending
+     */
+    public List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<>(entries.values());
+        result.sort(Comparator.comparingLong(Entry::getCount).reversed());
+
+        return result;
+    }
+
+    public long getParsedCount() {
+        return parsedCnt.sum();
+    }
+
+    public long getFallbackCount() {
+        return entries.values().stream().mapToLong(Entry::getCount).sum();
+    }
+
+    public void reset() {
+        entries.clear();
+        parsedCnt.reset();
+    }
+
+    public void writeTo(Writer writer) {
+        PrintWriter pw = new PrintWriter(writer);
+        long parsedCount = getParsedCount();
+        long fallbackCount = getFallbackCount();
+
+        pw.printf("SLL->LL fallbacks: %d of %d parses%n%n", fallbackCount, parsedCount);
+        pw.printf("%8s %8s  %-40s %-28s %s%n", "count", "decision", "rule", "exception", "samples");
+        for (Entry entry : getEntries()) {
+            pw.printf("%8d %8d  %-40s %-28s %s%n",
+                    entry.getCount(), entry.getDecision(), entry.getRuleName(), entry.getExceptionName(),
+                    String.join(", ", entry.getSamples()));
+        }
+
+        pw.flush();
+    }
+
+    public void save(Path path) throws IOException {
+        if (null != path.getParent()) {
+            Files.createDirectories(path.getParent());
+        }
+
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeTo(writer);
+        }
+    }
+
+    /**
+     * The fallbacks triggered by the same decision
+     */
+    public static class Entry {
+        private final Key key;
+        private final LongAdder count = new LongAdder();
+        private final AtomicInteger sampleCnt = new AtomicInteger(0);
+        private final AtomicReferenceArray<String> samples = new AtomicReferenceArray<>(MAX_SAMPLE_CNT);
+
+        private Entry(Key key) {
+            this.key = key;
+        }
+
+        private void add(String position) {
+            count.increment();
+            int index = sampleCnt.getAndIncrement();
+            if (index < MAX_SAMPLE_CNT) {
+                samples.set(index, position);
+            }
+        }
+
+        public int getDecision() {
+            return key.decision;
+        }
+
+        public String getRuleName() {
+            return key.ruleName;
+        }
+
+        public String getExceptionName() {
+            return key.exceptionName;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public List<String> getSamples() {
+            List<String> result = new ArrayList<>(MAX_SAMPLE_CNT);
+            for (int i = 0; i < MAX_SAMPLE_CNT; i++) {
+                String sample = samples.get(i);
+                if (null != sample) {
+                    result.add(sample);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static class Key {
+        private final int decision;
+        private final String ruleName;
+        private final String exceptionName;
+
+        private Key(int decision, String ruleName, String exceptionName) {
+            this.decision = decision;
+            this.ruleName = ruleName;
+            this.exceptionName = exceptionName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return decision == key.decision &&
+                    ruleName.equals(key.ruleName) &&
+                    exceptionName.equals(key.exceptionName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(decision, ruleName, exceptionName);
+        }
+    }
+
+    /**
+     * Parse the groovy sources in the zip files and write the report, e.g.
+     * {@code SllFallbackReport sll-fallback.txt geb-1.0-allsources.zip grails-3.2.0-allsources.zip}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: SllFallbackReport <report file> <zip file>...");
+        }
+
+        INSTANCE.setEnabled(true);
+
+        CompilerConfiguration configuration = CompilerConfiguration.DEFAULT;
+        GroovyClassLoader classLoader = new GroovyClassLoader();
+        for (int i = 1; i < args.length; i++) {
+            try (ZipFile zf = new ZipFile(args[i])) {
+                for (Enumeration<? extends ZipEntry> entries = zf.entries(); entries.hasMoreElements(); ) {
+                    ZipEntry entry = entries.nextElement();
+                    String entryName = entry.getName();
+                    if (entry.isDirectory() || !(entryName.endsWith(".groovy") || entryName.endsWith(".gradle"))) {
+                        continue;
+                    }
+
+                    String text;
+                    try (InputStream is = zf.getInputStream(entry)) {
+                        text = DfaSnapshot.readText(is);
+                    }
+
+                    SourceUnit sourceUnit = new SourceUnit(entryName, new TextReaderSource(text, configuration), configuration, classLoader, new ErrorCollector(configuration));
+                    try {
+                        new AstBuilder(sourceUnit, false, false).buildCST();
+                    } catch (CompilationFailedException e) {
+                        // the sources with syntax errors are reported as fallbacks too
+                    }
+                }
+            }
+        }
+
+        INSTANCE.save(Paths.get(args[0]));
+
+        LOGGER.info("Wrote the SLL fallback report " + args[0] + ": " + INSTANCE.getFallbackCount() + " fallbacks of " + INSTANCE.getParsedCount() + " parses");
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates the identifiers and short string literals of the module nodes built by one {@link Antlr4PluginFactory},
+ * e.g. of a batch of files parsed by one {@link org.apache.groovy.parser.Antlr4Parser}, so that the thousands of "name"
+ * and "value" of the batch share one instance. The pool is garbage collected along with its factory, and it stops growing
+ * once it holds {@value #MAX_SIZE} strings, beyond which the new strings are just not shared
+ *
+ * @see AstBuilder#INTERN_STRINGS
+ */
+class StringPool {
+    private static final int MAX_LENGTH = 64;
+    private static final int MAX_SIZE = 1 << 16;
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+
+    /**
+     * @return the pooled instance equal to the string, or the string itself if it is too long to be shared or the pool is full
+     */
+    String intern(String string) {
+        if (null == string || string.length() > MAX_LENGTH) {
+            return string;
+        }
+
+        String pooled = strings.get(string);
+        if (null != pooled) {
+            return pooled;
+        }
+
+        if (strings.size() >= MAX_SIZE) {
+            return string;
+        }
+
+        pooled = strings.putIfAbsent(string, string);
+        return null == pooled ? string : pooled;
+    }
+
+    int size() {
+        return strings.size();
+    }
+}
@@ -41,6 +41,8 @@ import org.antlr.v4.runtime.misc.ParseCancellationException;
  */
 public class DescriptiveErrorStrategy extends BailErrorStrategy {
     private CharStream charStream;
+    private ParserRuleContext failedContext;
+    private RecognitionException failedException;
 
     public DescriptiveErrorStrategy(CharStream charStream) {
         this.charStream = charStream;
@@ -48,6 +50,9 @@ public class DescriptiveErrorStrategy extends BailErrorStrategy {
 
     @Override
     public void recover(Parser recognizer, RecognitionException e) {
+        this.failedContext = recognizer.getContext();
+        this.failedException = e;
+
         for (ParserRuleContext context = recognizer.getContext(); context != null; context = context.getParent()) {
             context.exception = e;
         }
@@ -73,6 +78,20 @@ public class DescriptiveErrorStrategy extends BailErrorStrategy {
         return null;
     }
 
+    /**
+     * @return the innermost context when parsing was cancelled last time
+     */
+    public ParserRuleContext getFailedContext() {
+        return failedContext;
+    }
+
+    /**
+     * @return the exception which cancelled parsing last time
+     */
+    public RecognitionException getFailedException() {
+        return failedException;
+    }
+
     protected String createNoViableAlternativeErrorMessage(Parser recognizer, NoViableAltException e) {
         TokenStream tokens = recognizer.getInputStream();
         String input;
@@ -0,0 +1,327 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A char stream decoding a memory-mapped UTF-8 file lazily, so that the text of big files is not copied to heap.
+ *
+ * The indexes of the stream are code point indexes like the streams created by {@code CharStreams}.
+ * The byte offsets of every {@value #CHECKPOINT_INTERVAL}th code point are recorded as checkpoints while decoding,
+ * so seeking far away does not have to decode from the start. Malformed bytes are decoded as U+FFFD.
+ * When the file turns out to be ASCII only, code point indexes are used as byte offsets directly.
+ */
+public class MappedFileCharStream implements CharStream {
+    private static final int CHECKPOINT_INTERVAL = 1024;
+    private static final int REPLACEMENT_CHAR = 0xFFFD;
+    private static final int[] MIN_CODE_POINTS = {0, 0, 0x80, 0x800, 0x10000};
+
+    private final MappedByteBuffer buffer;
+    private final String sourceName;
+    private final int start;
+    private final int limit;
+
+    // the code point index and byte offset of the cursor
+    private int index;
+    private int offset;
+
+    private int[] checkpoints = new int[16];
+    private int checkpointCnt;
+
+    private int size = -1;
+    private boolean ascii;
+
+    private MappedFileCharStream(MappedByteBuffer buffer, String sourceName) {
+        this.buffer = buffer;
+        this.sourceName = sourceName;
+        this.limit = buffer.limit();
+        this.start = hasBom(buffer) ? 3 : 0;
+        this.offset = start;
+        this.checkpoints[checkpointCnt++] = start;
+    }
+
+    /**
+     * Map the file into memory
+     *
+     * @throws IOException if the file can not be read, or is bigger than {@link Integer#MAX_VALUE} bytes, which can not be mapped as one buffer
+     */
+    public static MappedFileCharStream open(Path path, String sourceName) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("File is too big to map: " + path + "(" + fileSize + " bytes)");
+            }
+
+            // the mapping is valid until the buffer is garbage collected, even if the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+            return new MappedFileCharStream(buffer, sourceName);
+        }
+    }
+
+    private static boolean hasBom(MappedByteBuffer buffer) {
+        return buffer.limit() >= 3
+                && (buffer.get(0) & 0xFF) == 0xEF
+                && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF;
+    }
+
+    @Override
+    public void consume() {
+        if (offset >= limit) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        offset = next(offset);
+        index++;
+        recordCheckpoint(index, offset);
+    }
+
+    @Override
+    public int LA(int i) {
+        if (0 == i) {
+            return 0; // undefined
+        }
+
+        int target = i > 0 ? index + i - 1 : index + i;
+        if (target < 0) {
+            return IntStream.EOF;
+        }
+
+        if (ascii) {
+            return target < size ? buffer.get(start + target) : IntStream.EOF;
+        }
+
+        int o = 1 == i ? offset : locate(target);
+
+        return o < limit ? decode(o) : IntStream.EOF;
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {}
+
+    @Override
+    public int index() {
+        return index;
+    }
+
+    @Override
+    public void seek(int index) {
+        this.offset = locate(index);
+        this.index = index;
+    }
+
+    @Override
+    public int size() {
+        if (size < 0) {
+            int i = (checkpointCnt - 1) * CHECKPOINT_INTERVAL;
+            for (int o = checkpoints[checkpointCnt - 1]; o < limit; i++) {
+                o = next(o);
+                recordCheckpoint(i + 1, o);
+            }
+
+            size = i;
+            ascii = size == limit - start && isAscii();
+        }
+
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        if (null == sourceName || sourceName.isEmpty()) {
+            return IntStream.UNKNOWN_SOURCE_NAME;
+        }
+
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int size = size();
+        int startIndex = Math.min(interval.a, size);
+        int length = Math.min(interval.b - interval.a + 1, size - startIndex);
+
+        if (length <= 0) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder(length);
+        for (int o = locate(startIndex), i = 0; i < length; i++) {
+            int b = buffer.get(o);
+            if (b >= 0) { // ASCII
+                sb.append((char) b);
+                o++;
+            } else {
+                sb.appendCodePoint(decode(o));
+                o = next(o);
+            }
+        }
+
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getText(Interval.of(0, Integer.MAX_VALUE - 1));
+    }
+
+    private boolean isAscii() {
+        for (int o = start; o < limit; o++) {
+            if (buffer.get(o) < 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Find the byte offset of the code point index, starting from the nearer one of the cursor and the checkpoint
+     */
+    private int locate(int target) {
+        if (target <= 0) {
+            return start;
+        }
+
+        if (ascii) {
+            return start + Math.min(target, size);
+        }
+
+        int i = index;
+        int o = offset;
+
+        int checkpoint = Math.min(target / CHECKPOINT_INTERVAL, checkpointCnt - 1);
+        int checkpointIndex = checkpoint * CHECKPOINT_INTERVAL;
+        if (Math.abs(target - checkpointIndex) < Math.abs(target - i)) {
+            i = checkpointIndex;
+            o = checkpoints[checkpoint];
+        }
+
+        for (; i < target && o < limit; i++) {
+            o = next(o);
+            recordCheckpoint(i + 1, o);
+        }
+
+        for (; i > target; i--) {
+            o = previous(o);
+        }
+
+        return o;
+    }
+
+    private void recordCheckpoint(int i, int o) {
+        if (0 != i % CHECKPOINT_INTERVAL || i / CHECKPOINT_INTERVAL != checkpointCnt) {
+            return;
+        }
+
+        if (checkpointCnt == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpointCnt << 1);
+        }
+
+        checkpoints[checkpointCnt++] = o;
+    }
+
+    private int decode(int o) {
+        int b = buffer.get(o);
+        if (b >= 0) { // ASCII
+            return b;
+        }
+
+        int length = sequenceLength(b & 0xFF);
+        if (1 == length || length != effectiveLength(o)) {
+            return REPLACEMENT_CHAR;
+        }
+
+        int cp = (b & 0xFF) & (0xFF >> (length + 1));
+        for (int k = 1; k < length; k++) {
+            cp = (cp << 6) | (buffer.get(o + k) & 0x3F);
+        }
+
+        if (cp < MIN_CODE_POINTS[length] || cp > Character.MAX_CODE_POINT
+                || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+            return REPLACEMENT_CHAR;
+        }
+
+        return cp;
+    }
+
+    private int next(int o) {
+        return buffer.get(o) >= 0 ? o + 1 : o + effectiveLength(o);
+    }
+
+    private int previous(int o) {
+        int p = o - 1;
+        if (!isContinuation(buffer.get(p))) {
+            return p;
+        }
+
+        // find the lead byte whose sequence ends right before the offset
+        for (int q = p - 1; q >= start && q >= o - 4; q--) {
+            if (!isContinuation(buffer.get(q))) {
+                return q + effectiveLength(q) == o ? q : p;
+            }
+        }
+
+        // a stray continuation byte is decoded as a code point
+        return p;
+    }
+
+    /**
+     * The length of the sequence starting from the offset, which is shorter than the one
+     * specified by the lead byte if the continuation bytes are missing
+     */
+    private int effectiveLength(int o) {
+        int length = sequenceLength(buffer.get(o) & 0xFF);
+        int n = 1;
+        while (n < length && o + n < limit && isContinuation(buffer.get(o + n))) {
+            n++;
+        }
+
+        return n;
+    }
+
+    private static int sequenceLength(int lead) {
+        if (lead < 0x80) return 1;
+        if (lead >= 0xC0 && lead < 0xE0) return 2;
+        if (lead >= 0xE0 && lead < 0xF0) return 3;
+        if (lead >= 0xF0 && lead < 0xF8) return 4;
+
+        return 1; // continuation byte or invalid lead byte
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A char stream backed by the source text directly, which saves copying the text into a code point buffer.
+ *
+ * The indexes of the stream are code point indexes like the streams created by {@link CharStreams},
+ * so the text is used as is only if it does not contain any surrogate, i.e. every char is a code point.
+ */
+public class StringCharStream implements CharStream {
+    private final String text;
+    private final String sourceName;
+    private final int size;
+    private int position;
+
+    private StringCharStream(String text, String sourceName) {
+        this.text = text;
+        this.sourceName = sourceName;
+        this.size = text.length();
+    }
+
+    /**
+     * Create a char stream for the text, which is backed by the text if possible
+     */
+    public static CharStream create(String text, String sourceName) {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            if (Character.isSurrogate(text.charAt(i))) {
+                return CharStreams.fromString(text, sourceName);
+            }
+        }
+
+        return new StringCharStream(text, sourceName);
+    }
+
+    @Override
+    public void consume() {
+        if (position >= size) {
+            throw new IllegalStateException("cannot consume EOF");
+        }
+
+        position++;
+    }
+
+    @Override
+    public int LA(int i) {
+        int offset;
+        if (i > 0) {
+            offset = position + i - 1;
+        } else if (i < 0) {
+            offset = position + i;
+        } else {
+            return 0; // undefined
+        }
+
+        if (offset < 0 || offset >= size) {
+            return IntStream.EOF;
+        }
+
+        return text.charAt(offset);
+    }
+
+    @Override
+    public int mark() {
+        return -1;
+    }
+
+    @Override
+    public void release(int marker) {}
+
+    @Override
+    public int index() {
+        return position;
+    }
+
+    @Override
+    public void seek(int index) {
+        position = index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getSourceName() {
+        if (null == sourceName || sourceName.isEmpty()) {
+            return IntStream.UNKNOWN_SOURCE_NAME;
+        }
+
+        return sourceName;
+    }
+
+    @Override
+    public String getText(Interval interval) {
+        int start = Math.min(interval.a, size);
+        int length = Math.min(interval.b - interval.a + 1, size - start);
+
+        if (length <= 0) {
+            return "";
+        }
+
+        return text.substring(start, start + length);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
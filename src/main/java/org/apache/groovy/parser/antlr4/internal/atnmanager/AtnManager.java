@@ -19,20 +19,73 @@
 package org.apache.groovy.parser.antlr4.internal.atnmanager;
 
 import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.dfa.DFA;
 import org.apache.groovy.util.SystemUtil;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
- * Manage ATN to avoid memory leak
+ * Manage ATN to avoid memory leak.
+ *
+ * Instead of clearing the DFA cache under a global lock, which has to wait for all the parsing in progress,
+ * each DFA of the shared ATN is replaced in place with an empty one when the DFA cache should be cleared:
+ * the DFA arrays never contain {@code null}, so the parsing in progress just continues on the DFAs it has read,
+ * which will be garbage collected then. As a result, parsing is never blocked by clearing the DFA cache,
+ * and the ATN returned by the generated {@code getATN()} is always the one used by the lexers and parsers.
+ *
+ * By default the DFA cache is cleared every {@code groovy.antlr4.cache.threshold} parses. If the byte budget
+ * {@code groovy.antlr4.cache.budget} is specified, the estimated size of the DFA cache is checked every
+ * {@code groovy.antlr4.cache.budget.check.interval} parses, and the DFA cache is cleared only when it exceeds
+ * the budget. With {@code groovy.antlr4.cache.evict.per.decision} enabled, only the biggest DFAs are evicted
+ * until the estimated size drops to half of the budget.
+ *
+ * The statistics of DFA cache are reported via JMX if {@code groovy.antlr4.metrics} is enabled,
+ * and custom metrics can be plugged in via {@link #setMetrics(DfaCacheMetrics)}.
  */
 public abstract class AtnManager {
-    private static final ReentrantReadWriteLock RRWL = new ReentrantReadWriteLock(true);
-    private static final ReentrantReadWriteLock.WriteLock WRITE_LOCK = RRWL.writeLock();
-    public static final ReentrantReadWriteLock.ReadLock READ_LOCK = RRWL.readLock();
+    private static final Logger LOGGER = Logger.getLogger(AtnManager.class.getName());
     private static final String DFA_CACHE_THRESHOLD_OPT = "groovy.antlr4.cache.threshold";
+    private static final String DFA_CACHE_BUDGET_OPT = "groovy.antlr4.cache.budget";
+    private static final String DFA_CACHE_EVICT_PER_DECISION_OPT = "groovy.antlr4.cache.evict.per.decision";
+    private static final String DFA_CACHE_BUDGET_CHECK_INTERVAL_OPT = "groovy.antlr4.cache.budget.check.interval";
+    private static final String DFA_STATE_SIZE_OPT = "groovy.antlr4.cache.state.size";
+    private static final String METRICS_OPT = "groovy.antlr4.metrics";
     private static final long DFA_CACHE_THRESHOLD;
+    private static final long DFA_CACHE_BUDGET_CHECK_INTERVAL;
+    private static final AtomicInteger CLEARING_SUSPENDED_CNT = new AtomicInteger(0);
+    private static volatile long dfaCacheBudget;
+    private static volatile boolean dfaCacheEvictPerDecision;
+    private static volatile DfaCacheMetrics metrics = DfaCacheMetrics.NOOP;
+
+    /**
+     * The rough size of a DFA state in bytes, including its ATN config set and edges.
+     *
+     * It is an estimate rather than a measurement: a DFA state of the Groovy grammar typically holds a dozen or so
+     * ATN configs, each of which takes a few dozen bytes with its share of the prediction context, plus the edge maps.
+     * The estimate can be calibrated via {@code groovy.antlr4.cache.state.size}, e.g. by comparing the heap histogram
+     * with the DFA state count reported by {@link DfaCacheStatsMXBean}. The prediction contexts are not counted,
+     * but they are cleared along with the DFAs.
+     */
+    public static final long ESTIMATED_DFA_STATE_SIZE;
+
+    /**
+     * The cache of prediction contexts shared by the DFA states, which is private in the runtime and cleared only by
+     * {@link ATN#clearDFA()}. The LL(1) table is not cleared: it maps decisions and token types to alternatives,
+     * so its size is bounded by the grammar rather than by the parsed sources.
+     */
+    private static final Field CONTEXT_CACHE_FIELD;
 
     static {
         long t = SystemUtil.getLongSafe(DFA_CACHE_THRESHOLD_OPT, 64L);
@@ -41,36 +94,236 @@ public abstract class AtnManager {
         }
 
         DFA_CACHE_THRESHOLD = t;
+        DFA_CACHE_BUDGET_CHECK_INTERVAL = Math.max(SystemUtil.getLongSafe(DFA_CACHE_BUDGET_CHECK_INTERVAL_OPT, 16L), 1L);
+        ESTIMATED_DFA_STATE_SIZE = Math.max(SystemUtil.getLongSafe(DFA_STATE_SIZE_OPT, 512L), 1L);
+        dfaCacheBudget = Math.max(SystemUtil.getLongSafe(DFA_CACHE_BUDGET_OPT, 0L), 0L);
+        dfaCacheEvictPerDecision = SystemUtil.getBooleanSafe(DFA_CACHE_EVICT_PER_DECISION_OPT);
+
+        Field contextCacheField;
+        try {
+            contextCacheField = ATN.class.getDeclaredField("contextCache");
+            contextCacheField.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to access the prediction context cache of ATN, which will not be cleared", e);
+            contextCacheField = null;
+        }
+        CONTEXT_CACHE_FIELD = contextCacheField;
+
+        if (SystemUtil.getBooleanSafe(METRICS_OPT)) {
+            DfaCacheStats dfaCacheStats = new DfaCacheStats();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(dfaCacheStats, new ObjectName(DfaCacheStats.OBJECT_NAME));
+            } catch (JMException e) {
+                LOGGER.log(Level.WARNING, "Failed to register the MBean " + DfaCacheStats.OBJECT_NAME, e);
+            }
+
+            metrics = dfaCacheStats;
+        }
     }
 
+    public static DfaCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    public static void setMetrics(DfaCacheMetrics metrics) {
+        AtnManager.metrics = null == metrics ? DfaCacheMetrics.NOOP : metrics;
+    }
+
+    public static long getDfaCacheBudget() {
+        return dfaCacheBudget;
+    }
+
+    /**
+     * Change the byte budget of DFA cache at runtime, see {@code groovy.antlr4.cache.budget}
+     *
+     * @param dfaCacheBudget the budget, or 0 to clear DFA cache according to {@code groovy.antlr4.cache.threshold}
+     */
+    public static void setDfaCacheBudget(long dfaCacheBudget) {
+        AtnManager.dfaCacheBudget = Math.max(dfaCacheBudget, 0L);
+    }
+
+    public static boolean isDfaCacheEvictPerDecision() {
+        return dfaCacheEvictPerDecision;
+    }
+
+    /**
+     * Change whether to evict the biggest DFAs only at runtime, see {@code groovy.antlr4.cache.evict.per.decision}
+     */
+    public static void setDfaCacheEvictPerDecision(boolean dfaCacheEvictPerDecision) {
+        AtnManager.dfaCacheEvictPerDecision = dfaCacheEvictPerDecision;
+    }
 
     public abstract ATN getATN();
 
+    /**
+     * Get the ATN in use without counting it as a parse
+     */
+    public abstract ATN getCurrentATN();
+
+    /**
+     * Discard the DFA cache by replacing the DFAs of the ATN with empty ones
+     */
+    public abstract void clearDfaCache();
+
     protected abstract boolean shouldClearDfaCache();
 
+    /**
+     * Populate the DFA cache without clearing it, e.g. warming up the DFA cache by parsing a batch of sources
+     */
+    public static <T> T withClearingSuspended(Supplier<T> action) {
+        CLEARING_SUSPENDED_CNT.incrementAndGet();
+        try {
+            return action.get();
+        } finally {
+            CLEARING_SUSPENDED_CNT.decrementAndGet();
+        }
+    }
+
+    /**
+     * Count the DFA states cached by the decisions and lexer modes of the ATN
+     */
+    public static long countDfaStates(ATN atn) {
+        return countDfaStates(atn.decisionToDFA) + countDfaStates(atn.modeToDFA);
+    }
+
+    private static long countDfaStates(DFA[] dfas) {
+        long cnt = 0;
+        for (DFA dfa : dfas) {
+            cnt += dfa.states.size();
+        }
+
+        return cnt;
+    }
+
+    /**
+     * Replace the biggest DFAs with empty ones until the estimated size of DFA cache is not greater than the target size.
+     * The prediction contexts are cleared as well, just like {@link ATN#clearDFA()} does.
+     *
+     * @return the count of evicted DFAs
+     */
+    private static int evictBiggestDfas(ATN atn, long targetSize) {
+        DFA[] decisionToDFA = atn.decisionToDFA;
+        DFA[] modeToDFA = atn.modeToDFA;
+        long size = (countDfaStates(decisionToDFA) + countDfaStates(modeToDFA)) * ESTIMATED_DFA_STATE_SIZE;
+
+        // take a snapshot of the sizes, which are changing while parsing is in progress
+        int[] sizes = Arrays.stream(decisionToDFA).mapToInt(dfa -> dfa.states.size()).toArray();
+        Integer[] decisions = new Integer[sizes.length];
+        Arrays.setAll(decisions, i -> i);
+        Arrays.sort(decisions, Comparator.comparingInt((Integer i) -> sizes[i]).reversed());
+
+        int evictedDfaCnt = 0;
+        for (int i = 0; i < decisions.length && size > targetSize; i++, evictedDfaCnt++) {
+            int decision = decisions[i];
+            size -= sizes[decision] * ESTIMATED_DFA_STATE_SIZE;
+            decisionToDFA[decision] = new DFA(atn.decisionToState.get(decision), decision);
+        }
+
+        // lexer modes are few but big, so they are evicted only if evicting decisions does not help
+        for (int mode = 0; mode < modeToDFA.length && size > targetSize; mode++, evictedDfaCnt++) {
+            size -= modeToDFA[mode].states.size() * ESTIMATED_DFA_STATE_SIZE;
+            modeToDFA[mode] = new DFA(atn.modeToStartState.get(mode));
+        }
+
+        clearContextCache(atn);
+
+        return evictedDfaCnt;
+    }
+
+    /**
+     * Replace all the DFAs of the ATN with empty ones, and clear the prediction contexts shared by them.
+     *
+     * Unlike {@link ATN#clearDFA()}, which swaps in new DFA arrays before filling them, the DFAs are replaced
+     * one by one, so the parsing in progress never reads a missing DFA.
+     */
+    private static void clearDfas(ATN atn) {
+        DFA[] decisionToDFA = atn.decisionToDFA;
+        for (int decision = 0; decision < decisionToDFA.length; decision++) {
+            decisionToDFA[decision] = new DFA(atn.decisionToState.get(decision), decision);
+        }
+
+        DFA[] modeToDFA = atn.modeToDFA;
+        for (int mode = 0; mode < modeToDFA.length; mode++) {
+            modeToDFA[mode] = new DFA(atn.modeToStartState.get(mode));
+        }
+
+        clearContextCache(atn);
+    }
+
+    private static void clearContextCache(ATN atn) {
+        if (null == CONTEXT_CACHE_FIELD) {
+            return;
+        }
+
+        try {
+            ((Map<?, ?>) CONTEXT_CACHE_FIELD.get(atn)).clear();
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to clear the prediction context cache of ATN", e);
+        }
+    }
+
     protected class AtnWrapper {
         private final ATN atn;
         private final AtomicLong counter = new AtomicLong(0);
+        private final AtomicBoolean evicting = new AtomicBoolean(false);
 
         public AtnWrapper(ATN atn) {
             this.atn = atn;
         }
 
         public ATN checkAndClear() {
-            if (!shouldClearDfaCache()) {
+            if (!shouldClearDfaCache() || CLEARING_SUSPENDED_CNT.get() > 0) {
                 return atn;
             }
 
+            long budget = dfaCacheBudget;
+            if (budget > 0) {
+                // counting the DFA states walks all the DFAs, so the budget is not checked on every parse
+                if (0 != counter.incrementAndGet() % DFA_CACHE_BUDGET_CHECK_INTERVAL) {
+                    return atn;
+                }
+
+                return checkBudgetAndClear(budget);
+            }
+
             if (0 != counter.incrementAndGet() % DFA_CACHE_THRESHOLD) {
                 return atn;
             }
 
-            WRITE_LOCK.lock();
+            return renew();
+        }
+
+        private ATN checkBudgetAndClear(long budget) {
+            if (countDfaStates(atn) * ESTIMATED_DFA_STATE_SIZE <= budget) {
+                return atn;
+            }
+
+            // evicting is in progress, no need to evict again
+            if (!evicting.compareAndSet(false, true)) {
+                return atn;
+            }
+
             try {
-                atn.clearDFA();
+                if (!dfaCacheEvictPerDecision) {
+                    return renew();
+                }
+
+                int evictedDfaCnt = evictBiggestDfas(atn, budget / 2);
+                metrics.onDfaEvicted(AtnManager.this, evictedDfaCnt);
+
+                return atn;
             } finally {
-                WRITE_LOCK.unlock();
+                evicting.set(false);
             }
+        }
+
+        public ATN getAtn() {
+            return atn;
+        }
+
+        public ATN renew() {
+            clearDfas(atn);
+            metrics.onDfaCacheCleared(AtnManager.this);
 
             return atn;
         }
@@ -0,0 +1,55 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal.atnmanager;
+
+/**
+ * The instrumentation surface of DFA cache, see {@link AtnManager#setMetrics(DfaCacheMetrics)}
+ */
+public interface DfaCacheMetrics {
+    /**
+     * The metrics which records nothing, used when metrics are disabled
+     */
+    DfaCacheMetrics NOOP = new DfaCacheMetrics() {
+        @Override
+        public void onParsed(boolean llFallback) {}
+
+        @Override
+        public void onDfaCacheCleared(AtnManager atnManager) {}
+
+        @Override
+        public void onDfaEvicted(AtnManager atnManager, int evictedDfaCnt) {}
+    };
+
+    /**
+     * Called when building the CST finishes, successfully or not, after the LL retry if any
+     *
+     * @param llFallback whether parsing in SLL mode failed and fell back to LL mode
+     */
+    void onParsed(boolean llFallback);
+
+    /**
+     * Called when the whole DFA cache is cleared, i.e. all the DFAs are replaced with empty ones
+     */
+    void onDfaCacheCleared(AtnManager atnManager);
+
+    /**
+     * Called when the biggest DFAs are evicted
+     */
+    void onDfaEvicted(AtnManager atnManager, int evictedDfaCnt);
+}
@@ -0,0 +1,126 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal.atnmanager;
+
+import org.antlr.v4.runtime.dfa.DFA;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collect the statistics of DFA cache, which are reported via JMX
+ */
+public class DfaCacheStats implements DfaCacheMetrics, DfaCacheStatsMXBean {
+    public static final String OBJECT_NAME = "org.apache.groovy.parser.antlr4:type=DfaCacheStats";
+    private final LongAdder parseCount = new LongAdder();
+    private final LongAdder llFallbackCount = new LongAdder();
+    private final LongAdder parserDfaCacheClearCount = new LongAdder();
+    private final LongAdder lexerDfaCacheClearCount = new LongAdder();
+    private final LongAdder parserDfaEvictionCount = new LongAdder();
+    private final LongAdder lexerDfaEvictionCount = new LongAdder();
+
+    @Override
+    public void onParsed(boolean llFallback) {
+        parseCount.increment();
+        if (llFallback) {
+            llFallbackCount.increment();
+        }
+    }
+
+    @Override
+    public void onDfaCacheCleared(AtnManager atnManager) {
+        (atnManager instanceof LexerAtnManager ? lexerDfaCacheClearCount : parserDfaCacheClearCount).increment();
+    }
+
+    @Override
+    public void onDfaEvicted(AtnManager atnManager, int evictedDfaCnt) {
+        (atnManager instanceof LexerAtnManager ? lexerDfaEvictionCount : parserDfaEvictionCount).add(evictedDfaCnt);
+    }
+
+    @Override
+    public long getParseCount() {
+        return parseCount.sum();
+    }
+
+    @Override
+    public long getLlFallbackCount() {
+        return llFallbackCount.sum();
+    }
+
+    @Override
+    public double getLlFallbackRate() {
+        long parseCnt = parseCount.sum();
+
+        return 0 == parseCnt ? 0 : (double) llFallbackCount.sum() / parseCnt;
+    }
+
+    @Override
+    public long getParserDfaCacheClearCount() {
+        return parserDfaCacheClearCount.sum();
+    }
+
+    @Override
+    public long getLexerDfaCacheClearCount() {
+        return lexerDfaCacheClearCount.sum();
+    }
+
+    @Override
+    public long getParserDfaEvictionCount() {
+        return parserDfaEvictionCount.sum();
+    }
+
+    @Override
+    public long getLexerDfaEvictionCount() {
+        return lexerDfaEvictionCount.sum();
+    }
+
+    @Override
+    public long getParserDfaStateCount() {
+        return AtnManager.countDfaStates(ParserAtnManager.INSTANCE.getCurrentATN());
+    }
+
+    @Override
+    public long getLexerDfaStateCount() {
+        return AtnManager.countDfaStates(LexerAtnManager.INSTANCE.getCurrentATN());
+    }
+
+    @Override
+    public int[] getParserDfaStateCountPerDecision() {
+        return countDfaStates(ParserAtnManager.INSTANCE.getCurrentATN().decisionToDFA);
+    }
+
+    @Override
+    public int[] getLexerDfaStateCountPerMode() {
+        return countDfaStates(LexerAtnManager.INSTANCE.getCurrentATN().modeToDFA);
+    }
+
+    private static int[] countDfaStates(DFA[] dfas) {
+        return Arrays.stream(dfas).mapToInt(dfa -> dfa.states.size()).toArray();
+    }
+
+    @Override
+    public void reset() {
+        parseCount.reset();
+        llFallbackCount.reset();
+        parserDfaCacheClearCount.reset();
+        lexerDfaCacheClearCount.reset();
+        parserDfaEvictionCount.reset();
+        lexerDfaEvictionCount.reset();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal.atnmanager;
+
+/**
+ * The MBean reporting the statistics of DFA cache, registered as {@value DfaCacheStats#OBJECT_NAME}
+ */
+public interface DfaCacheStatsMXBean {
+    long getParseCount();
+
+    long getLlFallbackCount();
+
+    /**
+     * The ratio of parses which fell back to LL mode
+     */
+    double getLlFallbackRate();
+
+    long getParserDfaCacheClearCount();
+
+    long getLexerDfaCacheClearCount();
+
+    long getParserDfaEvictionCount();
+
+    long getLexerDfaEvictionCount();
+
+    long getParserDfaStateCount();
+
+    long getLexerDfaStateCount();
+
+    /**
+     * The DFA state counts of parser, indexed by decision number
+     */
+    int[] getParserDfaStateCountPerDecision();
+
+    /**
+     * The DFA state counts of lexer, indexed by lexer mode
+     */
+    int[] getLexerDfaStateCountPerMode();
+
+    void reset();
+}
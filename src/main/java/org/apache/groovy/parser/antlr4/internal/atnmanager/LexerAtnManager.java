@@ -22,6 +22,16 @@ public class LexerAtnManager extends AtnManager {
         return lexerAtnWrapper.checkAndClear();
     }
 
+    @Override
+    public ATN getCurrentATN() {
+        return lexerAtnWrapper.getAtn();
+    }
+
+    @Override
+    public void clearDfaCache() {
+        lexerAtnWrapper.renew();
+    }
+
     @Override
     protected boolean shouldClearDfaCache() {
         return TO_CLEAR_LEXER_DFA_CACHE;
@@ -15,6 +15,16 @@ public class ParserAtnManager extends AtnManager {
         return parserAtnWrapper.checkAndClear();
     }
 
+    @Override
+    public ATN getCurrentATN() {
+        return parserAtnWrapper.getAtn();
+    }
+
+    @Override
+    public void clearDfaCache() {
+        parserAtnWrapper.renew();
+    }
+
     @Override
     protected boolean shouldClearDfaCache() {
         return true;
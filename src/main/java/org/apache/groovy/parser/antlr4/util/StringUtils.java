@@ -100,7 +100,36 @@ public class StringUtils {
 	public static final int SLASHY = 1;
 	public static final int DOLLAR_SLASHY = 2;
 
+	/**
+	 * Replace the escapes of the string literal in one scan, the result is the same as the one of {@link #replaceEscapesInPasses(String, int)}
+	 *
+	 * @param text the text of the string literal without quotations
+	 * @param slashyType {@link #NONE_SLASHY}, {@link #SLASHY} or {@link #DOLLAR_SLASHY}
+	 * @return the text whose escapes are replaced
+	 */
 	public static String replaceEscapes(String text, int slashyType) {
+		if (slashyType != NONE_SLASHY && slashyType != SLASHY && slashyType != DOLLAR_SLASHY) {
+			throw new IllegalArgumentException("Invalid slashyType: " + slashyType);
+		}
+
+		if (text.indexOf('\\') < 0 && (slashyType != DOLLAR_SLASHY || text.indexOf('$') < 0)) {
+			return text;
+		}
+
+		String result = decodeEscapes(text, slashyType);
+
+		// an octal or unicode escape decoded to a backslash may start another escape in the latter passes
+		return null != result ? result : replaceEscapesInPasses(text, slashyType);
+	}
+
+	/**
+	 * Replace the escapes of the string literal pass by pass, i.e. the reference implementation of {@link #replaceEscapes(String, int)}
+	 *
+	 * @param text the text of the string literal without quotations
+	 * @param slashyType {@link #NONE_SLASHY}, {@link #SLASHY} or {@link #DOLLAR_SLASHY}
+	 * @return the text whose escapes are replaced
+	 */
+	public static String replaceEscapesInPasses(String text, int slashyType) {
 		if (slashyType == SLASHY || slashyType == DOLLAR_SLASHY) {
 			text = StringUtils.replaceHexEscapes(text);
 			text = StringUtils.replaceLineEscape(text);
@@ -135,6 +164,261 @@ public class StringUtils {
 		return StringUtils.replaceStandardEscapes(replaceHexEscapes(replaceOctalEscapes(text)));
 	}
 
+	/**
+	 * Scan the text once. Each run of backslashes is handled as a whole: an odd run escapes the following character
+	 * and the remaining backslashes are halved(not for slashy strings) just like the last pass, i.e. replacing "\\\\" with "\\"
+	 *
+	 * @return the decoded text, or {@code null} if an octal or unicode escape is decoded to a backslash
+	 */
+	private static String decodeEscapes(String text, int slashyType) {
+		final boolean slashy = slashyType != NONE_SLASHY;
+		final int length = text.length();
+		final EscapeDecoder decoder = new EscapeDecoder(slashyType, length);
+
+		for (int i = 0; i < length; ) {
+			char c = text.charAt(i);
+			if ('\\' != c) {
+				decoder.append(c);
+				i++;
+				continue;
+			}
+
+			int runEnd = i + 1;
+			while (runEnd < length && '\\' == text.charAt(runEnd)) {
+				runEnd++;
+			}
+			int count = runEnd - i;
+			i = runEnd;
+
+			if (runEnd == length) {
+				decoder.appendBackslashes(slashy ? count : halve(count));
+				break;
+			}
+
+			char next = text.charAt(runEnd);
+			if (!slashy && '$' == next) {
+				// "\\$" is replaced with "$" regardless of the preceding backslashes
+				decoder.appendBackslashes(halve(count - 1));
+				continue;
+			}
+
+			if (count % 2 == 0) {
+				decoder.appendBackslashes(slashy ? count : halve(count));
+				continue;
+			}
+
+			int kept = slashy ? count - 1 : (count - 1) >> 1;
+			int escapeEnd = lineEscapeEnd(text, runEnd);
+			if (escapeEnd > 0) {
+				if (!slashy && 1 == count && endsWithPartialEscape(text, runEnd - 1, true)) {
+					// removing the line escape joins the partial escape and the following characters
+					return null;
+				}
+
+				decoder.appendBackslashes(kept);
+				i = escapeEnd;
+				continue;
+			}
+
+			int decoded = -1;
+			if ('u' == next) {
+				decoded = hexValue(text, runEnd + 1);
+				escapeEnd = runEnd + 5;
+			} else if (!slashy && next >= '0' && next <= '7') {
+				if (1 == count && endsWithPartialEscape(text, runEnd - 1, false)) {
+					// the decoded character may complete the preceding unicode escape
+					return null;
+				}
+
+				int maxEnd = Math.min(length, runEnd + (next <= '3' ? 3 : 2));
+				decoded = 0;
+				for (escapeEnd = runEnd; escapeEnd < maxEnd; escapeEnd++) {
+					char digit = text.charAt(escapeEnd);
+					if (digit < '0' || digit > '7') {
+						break;
+					}
+					decoded = (decoded << 3) + (digit - '0');
+				}
+			} else if (!slashy) {
+				decoded = standardEscape(next);
+				escapeEnd = runEnd + 1;
+			}
+
+			if (-1 == decoded) {
+				decoder.appendBackslashes(slashy ? count : halve(count));
+				continue;
+			}
+			if ('\\' == decoded) {
+				return null;
+			}
+			if (slashy && '\n' == decoded && 1 == count && runEnd >= 2 && '\r' == text.charAt(runEnd - 2) && isEscaping(text, runEnd - 2)) {
+				// the decoded line feed completes the preceding line escape
+				return null;
+			}
+
+			decoder.appendBackslashes(kept);
+			decoder.append((char) decoded);
+			i = escapeEnd;
+		}
+
+		return decoder.toString();
+	}
+
+	private static int halve(int backslashCount) {
+		return (backslashCount + 1) >> 1;
+	}
+
+	/**
+	 * Check whether the characters before the index end with an unicode escape lacking hex digits,
+	 * or with an octal escape which may take more digits if {@code octal} is {@code true}
+	 */
+	private static boolean endsWithPartialEscape(String text, int index, boolean octal) {
+		int i = index - 1;
+		while (i >= 0 && index - i <= 3 && -1 != hexValue(text.charAt(i))) {
+			i--;
+		}
+		if (i >= 0 && 'u' == text.charAt(i) && isEscaping(text, i)) {
+			return true;
+		}
+
+		if (octal) {
+			for (i = index - 1; i >= 0 && index - i <= 2; i--) {
+				char c = text.charAt(i);
+				if (c < '0' || c > '7') {
+					break;
+				}
+				if (isEscaping(text, i)) {
+					return true;
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Check whether the character at the index is preceded by an odd run of backslashes
+	 */
+	private static boolean isEscaping(String text, int index) {
+		int i = index - 1;
+		while (i >= 0 && '\\' == text.charAt(i)) {
+			i--;
+		}
+
+		return (index - 1 - i) % 2 == 1;
+	}
+
+	private static int lineEscapeEnd(String text, int index) {
+		char c = text.charAt(index);
+		if ('\n' == c) {
+			return index + 1;
+		}
+
+		if ('\r' == c && index + 1 < text.length() && '\n' == text.charAt(index + 1)) {
+			return index + 2;
+		}
+
+		return -1;
+	}
+
+	private static int hexValue(String text, int index) {
+		if (index + 4 > text.length()) {
+			return -1;
+		}
+
+		int value = 0;
+		for (int i = index; i < index + 4; i++) {
+			int digit = hexValue(text.charAt(i));
+			if (-1 == digit) {
+				return -1;
+			}
+			value = (value << 4) + digit;
+		}
+
+		return value;
+	}
+
+	private static int hexValue(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		}
+		if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		}
+		if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+
+		return -1;
+	}
+
+	private static int standardEscape(char c) {
+		switch (c) {
+			case 'b': return '\b';
+			case 't': return '\t';
+			case 'n': return '\n';
+			case 'f': return '\f';
+			case 'r': return '\r';
+			case 's': return ' ';
+			case '"':
+			case '\'': return c;
+			default: return -1;
+		}
+	}
+
+	/**
+	 * Collects the decoded characters, and replaces "\\/" with "/" for slashy strings,
+	 * "$/" with "/" and then "$$" with "$" for dollar slashy strings, as the characters arrive
+	 */
+	private static final class EscapeDecoder {
+		private final int slashyType;
+		private final StringBuilder sb;
+		private int dollarCount;
+
+		EscapeDecoder(int slashyType, int capacity) {
+			this.slashyType = slashyType;
+			this.sb = new StringBuilder(capacity);
+		}
+
+		void appendBackslashes(int count) {
+			for (int i = 0; i < count; i++) {
+				append('\\');
+			}
+		}
+
+		void append(char c) {
+			if (slashyType == SLASHY) {
+				int last = sb.length() - 1;
+				if ('/' == c && last >= 0 && '\\' == sb.charAt(last)) {
+					sb.setLength(last);
+				}
+			} else if (slashyType == DOLLAR_SLASHY) {
+				if ('$' == c) {
+					dollarCount++;
+					return;
+				}
+
+				flushDollars('/' == c);
+			}
+
+			sb.append(c);
+		}
+
+		private void flushDollars(boolean followedBySlash) {
+			int count = followedBySlash && dollarCount > 0 ? dollarCount - 1 : dollarCount;
+			for (int i = 0, n = halve(count); i < n; i++) {
+				sb.append('$');
+			}
+			dollarCount = 0;
+		}
+
+		@Override
+		public String toString() {
+			flushDollars(false);
+			return sb.toString();
+		}
+	}
+
 	private static String replaceLineEscape(String text) {
 		if (!text.contains(BACKSLASH)) {
 			return text;
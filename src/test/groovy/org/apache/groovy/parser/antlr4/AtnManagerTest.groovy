@@ -0,0 +1,151 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CharStreams
+import org.antlr.v4.runtime.CommonTokenStream
+import org.apache.groovy.parser.Antlr4Parser
+import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheMetrics
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheStats
+import org.apache.groovy.parser.antlr4.internal.atnmanager.LexerAtnManager
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager
+import org.apache.groovy.parser.antlr4.util.ASTComparatorCategory
+import org.codehaus.groovy.ast.ModuleNode
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Test the DFA cache management
+ */
+@CompileStatic
+class AtnManagerTest extends GroovyTestCase {
+    private static final List<String> PATHS = [
+            'core/ClassDeclaration_01.groovy',
+            'core/Closure_01.groovy',
+            'core/Command_01.groovy',
+            'core/GString_01.groovy',
+            'core/Lambda_01x.groovy',
+    ]
+
+    void "test generated getATN returns the ATN in use"() {
+        LexerAtnManager.INSTANCE.clearDfaCache()
+        ParserAtnManager.INSTANCE.clearDfaCache()
+
+        def lexer = new GroovyLangLexer(CharStreams.fromString('def a = 1'))
+        def parser = new GroovyLangParser(new CommonTokenStream(lexer))
+
+        assert lexer.getATN().is(lexer.getInterpreter().atn)
+        assert lexer.getATN().is(LexerAtnManager.INSTANCE.getCurrentATN())
+        assert parser.getATN().is(parser.getInterpreter().atn)
+        assert parser.getATN().is(ParserAtnManager.INSTANCE.getCurrentATN())
+    }
+
+    void "test clear DFA cache while parsing concurrently"() {
+        Map<String, String> sources = PATHS.collectEntries { String path -> [(path): new File("$TestUtils.RESOURCES_PATH/$path").text] }
+        Map<String, ModuleNode> expected = (Map<String, ModuleNode>) sources.collectEntries { String path, String text -> [(path): new Antlr4Parser().parse(path, text)] }
+
+        int threadCnt = 8
+        ExecutorService executor = Executors.newFixedThreadPool(threadCnt)
+        AtomicBoolean parsing = new AtomicBoolean(true)
+        try {
+            List<Future<List<ModuleNode>>> futures = (1..threadCnt).collect {
+                executor.submit({
+                    List<ModuleNode> result = []
+                    for (int i = 0; i < 20; i++) {
+                        sources.each { String path, String text ->
+                            result << new Antlr4Parser().parse(path, text)
+                        }
+                    }
+                    return result
+                } as Callable<List<ModuleNode>>)
+            }
+
+            Thread clearer = Thread.start {
+                while (parsing.get()) {
+                    LexerAtnManager.INSTANCE.clearDfaCache()
+                    ParserAtnManager.INSTANCE.clearDfaCache()
+                    Thread.yield()
+                }
+            }
+
+            try {
+                futures.each { Future<List<ModuleNode>> future ->
+                    List<ModuleNode> result = future.get()
+                    assert sources.size() * 20 == result.size()
+                    result.eachWithIndex { ModuleNode ast, int i ->
+                        TestUtils.assertAST(expected[PATHS[i % PATHS.size()]], ast, ASTComparatorCategory.DEFAULT_CONFIGURATION)
+                    }
+                }
+            } finally {
+                parsing.set(false)
+                clearer.join()
+            }
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    void "test tiny budget renews DFA cache"() {
+        DfaCacheStats stats = parseWithBudget(1L, false)
+
+        assert stats.parserDfaCacheClearCount > 0
+        assert 0 == stats.parserDfaEvictionCount
+    }
+
+    void "test tiny budget evicts biggest DFAs"() {
+        DfaCacheStats stats = parseWithBudget(1L, true)
+
+        assert stats.parserDfaEvictionCount > 0
+        assert 0 == stats.parserDfaCacheClearCount
+    }
+
+    private static DfaCacheStats parseWithBudget(long budget, boolean evictPerDecision) {
+        Map<String, String> sources = PATHS.collectEntries { String path -> [(path): new File("$TestUtils.RESOURCES_PATH/$path").text] }
+        Map<String, ModuleNode> expected = (Map<String, ModuleNode>) sources.collectEntries { String path, String text -> [(path): new Antlr4Parser().parse(path, text)] }
+
+        long originalBudget = AtnManager.getDfaCacheBudget()
+        boolean originalEvictPerDecision = AtnManager.isDfaCacheEvictPerDecision()
+        DfaCacheMetrics originalMetrics = AtnManager.getMetrics()
+        DfaCacheStats stats = new DfaCacheStats()
+        try {
+            AtnManager.setDfaCacheBudget(budget)
+            AtnManager.setDfaCacheEvictPerDecision(evictPerDecision)
+            AtnManager.setMetrics(stats)
+
+            // the budget is checked every 16 parses by default
+            for (int i = 0; i < 10; i++) {
+                sources.each { String path, String text ->
+                    TestUtils.assertAST(expected[path], new Antlr4Parser().parse(path, text), ASTComparatorCategory.DEFAULT_CONFIGURATION)
+                }
+            }
+        } finally {
+            AtnManager.setDfaCacheBudget(originalBudget)
+            AtnManager.setDfaCacheEvictPerDecision(originalEvictPerDecision)
+            AtnManager.setMetrics(originalMetrics)
+        }
+
+        return stats
+    }
+}
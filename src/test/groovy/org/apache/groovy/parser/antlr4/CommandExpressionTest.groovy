@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.tree.ParseTree
+import org.codehaus.groovy.GroovyBugError
+import org.codehaus.groovy.control.CompilationFailedException
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.ErrorCollector
+import org.codehaus.groovy.control.SourceUnit
+
+
+import static org.apache.groovy.parser.antlr4.GroovyParser.CommandExpressionContext
+import static org.apache.groovy.parser.antlr4.GroovyParser.ExpressionContext
+import static org.apache.groovy.parser.antlr4.GroovyParser.GroovyParserRuleContext
+import static org.apache.groovy.parser.antlr4.GroovyParser.PathExpressionContext
+import static org.apache.groovy.parser.antlr4.GroovyParser.PostfixExprAltContext
+import static org.apache.groovy.parser.antlr4.GroovyParser.PostfixExpressionContext
+
+/**
+ * Test that the path expression kind recorded on the postfix expressions decides the command expressions
+ * the same way as the structure of the parse trees, which keeps the parse trees of the bundled corpora identical
+ */
+@CompileStatic
+class CommandExpressionTest extends GroovyTestCase {
+    void "test the recorded kind of the bundled sources"() {
+        assert TestUtils.checkCorpusSample { String name, String text -> check(name, text) } > 0
+    }
+
+    void "test command expressions"() {
+        String text = '''
+            foo bar
+            foo(1) bar
+            foo { it } bar
+            a.b.c d
+            println a.b()
+        '''
+        List<CommandExpressionContext> commandExpressionList = []
+        walk(buildCST('Command.groovy', text)) { ParseTree tree ->
+            if (tree instanceof CommandExpressionContext) {
+                commandExpressionList << (CommandExpressionContext) tree
+            }
+        }
+        commandExpressionList.sort { CommandExpressionContext c -> c.start.tokenIndex }
+
+        assert [false, true, true, false, false, false] == commandExpressionList.collect { CommandExpressionContext c -> SemanticPredicates.isFollowingArgumentsOrClosure(c.expression()) }
+    }
+
+    void "test unexpected structure of expression context"() {
+        // the postfix expression is not recorded, e.g. the context is not created by the parser
+        shouldFail(GroovyBugError) {
+            SemanticPredicates.isFollowingArgumentsOrClosure(new PostfixExprAltContext(new ExpressionContext()))
+        }
+    }
+
+    /**
+     * @return the number of the checked postfix expressions
+     */
+    private static int check(String name, String text) {
+        GroovyParserRuleContext cst
+        try {
+            cst = buildCST(name, text)
+        } catch (CompilationFailedException ignored) {
+            return 0
+        }
+
+        int count = 0
+        walk(cst) { ParseTree tree ->
+            if (tree instanceof PostfixExprAltContext) {
+                ExpressionContext context = (ExpressionContext) tree
+                assert isFollowingArgumentsOrClosure(context) == SemanticPredicates.isFollowingArgumentsOrClosure(context)
+                count++
+            }
+        }
+
+        return count
+    }
+
+    private static GroovyParserRuleContext buildCST(String name, String text) {
+        CompilerConfiguration configuration = CompilerConfiguration.DEFAULT
+        SourceUnit sourceUnit = new SourceUnit(name, text, configuration, new GroovyClassLoader(), new ErrorCollector(configuration))
+
+        return new AstBuilder(sourceUnit, false, false).buildCST()
+    }
+
+    private static void walk(ParseTree root, Closure visitor) {
+        Deque<ParseTree> stack = new ArrayDeque<>()
+        stack.push(root)
+        while (!stack.isEmpty()) {
+            ParseTree tree = stack.pop()
+            visitor.call(tree)
+
+            for (int i = 0; i < tree.childCount; i++) {
+                stack.push(tree.getChild(i))
+            }
+        }
+    }
+
+    /**
+     * The previous implementation, which walks down the children of the expression
+     */
+    private static boolean isFollowingArgumentsOrClosure(ExpressionContext context) {
+        if (context instanceof PostfixExprAltContext) {
+            ParseTree peacChild = ((PostfixExprAltContext) context).children.get(0)
+            ParseTree pecChild = ((PostfixExpressionContext) peacChild).children.get(0)
+            int t = ((PathExpressionContext) pecChild).t
+
+            return (2 == t || 3 == t)
+        }
+
+        return false
+    }
+}
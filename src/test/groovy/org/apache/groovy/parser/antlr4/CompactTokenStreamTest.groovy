@@ -0,0 +1,71 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.BufferedTokenStream
+import org.antlr.v4.runtime.CommonTokenStream
+import org.antlr.v4.runtime.Token
+import org.antlr.v4.runtime.tree.ParseTree
+import org.apache.groovy.parser.antlr4.internal.DescriptiveErrorStrategy
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+
+/**
+ * Test the token stream keeping the fields of tokens in parallel int arrays
+ */
+@CompileStatic
+class CompactTokenStreamTest extends GroovyTestCase {
+    private static final List<String> PATHS = ['core/ClassDeclaration_01.groovy', 'core/Closure_01.groovy', 'core/GString_01.groovy', 'core/Comments_01.groovy']
+
+    void "test same tokens as common token stream"() {
+        PATHS.each { String path ->
+            String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+
+            assert tokens(new CompactTokenStream(createLexer(text, path))) == tokens(new CommonTokenStream(createLexer(text, path)))
+        }
+    }
+
+    void "test same parse tree as common token stream"() {
+        PATHS.each { String path ->
+            String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+
+            assert parse(new CompactTokenStream(createLexer(text, path))) == parse(new CommonTokenStream(createLexer(text, path)))
+        }
+    }
+
+    private static GroovyLangLexer createLexer(String text, String path) {
+        return new GroovyLangLexer(StringCharStream.create(text, path))
+    }
+
+    private static List<String> tokens(BufferedTokenStream tokenStream) {
+        tokenStream.fill()
+
+        return tokenStream.getTokens().collect { Token token ->
+            "${token.tokenIndex}:${token.type}:${token.channel}:${token.text}:${token.startIndex}:${token.stopIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+    }
+
+    private static String parse(BufferedTokenStream tokenStream) {
+        GroovyLangParser parser = new GroovyLangParser(tokenStream)
+        parser.setErrorHandler(new DescriptiveErrorStrategy(tokenStream.tokenSource.inputStream))
+        ParseTree tree = parser.compilationUnit()
+
+        return tree.toStringTree(parser)
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.apache.groovy.parser.Antlr4Parser
+import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheMetrics
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheStats
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager
+
+/**
+ * Test the statistics of DFA cache
+ */
+@CompileStatic
+class DfaCacheStatsTest extends GroovyTestCase {
+    private DfaCacheMetrics originalMetrics
+    private DfaCacheStats stats
+
+    void setUp() {
+        originalMetrics = AtnManager.getMetrics()
+        stats = new DfaCacheStats()
+        AtnManager.setMetrics(stats)
+    }
+
+    void tearDown() {
+        AtnManager.setMetrics(originalMetrics)
+    }
+
+    void "test parse and fallback counts"() {
+        assert null != new Antlr4Parser().parse('A.groovy', 'def a = 1')
+        assert null != new Antlr4Parser().parse('B.groovy', 'println "hello, world"')
+        // a syntax error always fails in SLL mode, and the outcome is recorded after the LL retry fails too
+        assert null == new Antlr4Parser().parse('C.groovy', 'def a = ')
+
+        assert 3 == stats.parseCount
+        assert 1 == stats.llFallbackCount
+        assert 1 / 3d == stats.llFallbackRate
+    }
+
+    void "test clear and eviction counts"() {
+        ParserAtnManager.INSTANCE.clearDfaCache()
+        ParserAtnManager.INSTANCE.clearDfaCache()
+
+        assert 2 == stats.parserDfaCacheClearCount
+        assert 0 == stats.lexerDfaCacheClearCount
+        assert 0 == stats.parserDfaEvictionCount
+
+        long originalBudget = AtnManager.getDfaCacheBudget()
+        boolean originalEvictPerDecision = AtnManager.isDfaCacheEvictPerDecision()
+        try {
+            AtnManager.setDfaCacheBudget(1L)
+            AtnManager.setDfaCacheEvictPerDecision(true)
+
+            // the budget is checked every 16 parses by default
+            for (int i = 0; i < 32; i++) {
+                assert null != new Antlr4Parser().parse('A.groovy', 'def a = 1')
+            }
+        } finally {
+            AtnManager.setDfaCacheBudget(originalBudget)
+            AtnManager.setDfaCacheEvictPerDecision(originalEvictPerDecision)
+        }
+
+        assert stats.parserDfaEvictionCount > 0
+        assert 2 == stats.parserDfaCacheClearCount
+        assert 0 == stats.lexerDfaEvictionCount
+    }
+
+    void "test reset"() {
+        assert null != new Antlr4Parser().parse('A.groovy', 'def a = 1')
+        ParserAtnManager.INSTANCE.clearDfaCache()
+
+        stats.reset()
+
+        assert 0 == stats.parseCount
+        assert 0 == stats.llFallbackCount
+        assert 0 == stats.llFallbackRate
+        assert 0 == stats.parserDfaCacheClearCount
+    }
+}
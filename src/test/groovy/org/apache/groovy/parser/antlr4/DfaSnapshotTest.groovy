@@ -0,0 +1,82 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheMetrics
+import org.apache.groovy.parser.antlr4.internal.atnmanager.DfaCacheStats
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager
+
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Test the DFA snapshot for warming up the DFA cache
+ */
+@CompileStatic
+class DfaSnapshotTest extends GroovyTestCase {
+    private static final List<String> SOURCES = [
+            'core/ClassDeclaration_01.groovy',
+            'core/Closure_01.groovy',
+            'core/GString_01.groovy',
+    ].collect { String path -> new File("$TestUtils.RESOURCES_PATH/$path").text }
+
+    void "test save and load"() {
+        DfaSnapshot dfaSnapshot = DfaSnapshot.train(SOURCES)
+
+        def baos = new ByteArrayOutputStream()
+        dfaSnapshot.writeTo(baos)
+        DfaSnapshot loaded = DfaSnapshot.readFrom(new ByteArrayInputStream(baos.toByteArray())).get()
+
+        assert dfaSnapshot.sourceList == loaded.sourceList
+        assert dfaSnapshot.sourceList.every { String text -> SOURCES.contains(text) }
+    }
+
+    void "test warm up"() {
+        ParserAtnManager.INSTANCE.clearDfaCache()
+
+        assert DfaSnapshot.train(SOURCES).warmUp() > 0
+    }
+
+    void "test warm up is not recorded"() {
+        DfaSnapshot dfaSnapshot = DfaSnapshot.train(SOURCES)
+        DfaCacheMetrics originalMetrics = AtnManager.getMetrics()
+        DfaCacheStats stats = new DfaCacheStats()
+        AtnManager.setMetrics(stats)
+        try {
+            dfaSnapshot.warmUp()
+        } finally {
+            AtnManager.setMetrics(originalMetrics)
+        }
+
+        assert 0 == stats.parseCount
+    }
+
+    void "test stale snapshot is ignored"() {
+        def baos = new ByteArrayOutputStream()
+        new DataOutputStream(new GZIPOutputStream(baos)).withCloseable { DataOutputStream dos ->
+            dos.writeInt(0x47444653)
+            dos.writeInt(1)
+            dos.writeUTF('stale')
+            dos.writeInt(0)
+        }
+
+        assert !DfaSnapshot.readFrom(new ByteArrayInputStream(baos.toByteArray())).isPresent()
+    }
+}
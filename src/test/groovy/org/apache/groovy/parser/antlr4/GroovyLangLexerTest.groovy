@@ -0,0 +1,140 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CommonTokenStream
+import org.antlr.v4.runtime.Token
+import org.apache.groovy.parser.Antlr4Parser
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+import org.codehaus.groovy.syntax.SyntaxException
+
+/**
+ * Test the paren stack of the lexer, which decides whether the new lines are ignored
+ */
+@CompileStatic
+class GroovyLangLexerTest extends GroovyTestCase {
+    // deeper than the initial capacity(i.e. 32) of the paren stack, so that the stack grows twice
+    private static final int DEPTH = 100
+
+    void "test new lines inside deeply nested parens"() {
+        Random random = new Random(42)
+        List<String> opens = ['(', '[', '{']
+        Map<String, String> closes = ['(': ')', '[': ']', '{': '}']
+
+        10.times {
+            StringBuilder sb = new StringBuilder('def a = ')
+            Deque<String> stack = new ArrayDeque<>()
+            for (int i = 0; i < DEPTH; i++) {
+                String paren = opens[random.nextInt(opens.size())]
+                stack.push(paren)
+                sb << paren << '\n'
+            }
+            while (!stack.isEmpty()) {
+                sb << closes[stack.pop()] << '\n'
+            }
+            sb << 'println a\n'
+
+            checkNewLines(sb.toString())
+        }
+    }
+
+    void "test deeply nested expressions"() {
+        String text = 'def a = ' + '(' * DEPTH + '1' + ')' * DEPTH + '\n' +
+                'def b = ' + '[\n' * DEPTH + '1' + '\n]' * DEPTH + '\n' +
+                'def c = ' + '{ ->\n' * DEPTH + '1' + '\n}' * DEPTH + '\n' +
+                'println a\n'
+
+        assert null != new Antlr4Parser().parse('Nested.groovy', text)
+        checkNewLines(text)
+    }
+
+    void "test incremental lexing inside deeply nested parens"() {
+        String text = 'def a = ' + '(\n' * DEPTH + '1' + '\n)' * DEPTH + '\nprintln a\n'
+        IncrementalLexer lexer = new IncrementalLexer(text, 'Nested.groovy')
+
+        // the state restored at the edited line has more parens than the initial capacity of the paren stack
+        lexer.edit(text.indexOf('1'), 1, '[2,\n3]')
+
+        assert describe(tokens(lexer.text)) == describe(lexer.tokens)
+    }
+
+    void "test too many closing parens"() {
+        String text = 'def a = foo(1))\nprintln a\n'
+
+        List<Token> tokenList = tokens(text)
+        Token println = tokenList.find { Token token -> 'println' == token.text }
+        assert 2 == println.line && 0 == println.charPositionInLine
+
+        // the unmatched paren is ignored, so the new lines following it are not inside parens
+        checkNewLines(text)
+
+        SyntaxException e = TestUtils.parseAndFail(text)
+        assert 1 == e.line && 15 == e.startColumn
+    }
+
+    void "test unclosed parens"() {
+        String text = 'def a = foo(1,\n2\nprintln a'
+
+        // the new lines are ignored until the end of file, since the paren is never closed
+        assert tokens(text).every { Token token -> GroovyLexer.NL != token.type || Token.HIDDEN_CHANNEL == token.channel }
+
+        // the unclosed paren is reported
+        SyntaxException e = TestUtils.parseAndFail(text)
+        assert 1 == e.line && 12 == e.startColumn
+    }
+
+    /**
+     * Check the new lines are ignored if and only if the innermost paren is "(" or "["
+     */
+    private static void checkNewLines(String text) {
+        Deque<Integer> stack = new ArrayDeque<>()
+        for (Token token : tokens(text)) {
+            switch (token.type) {
+                case GroovyLexer.LPAREN:
+                case GroovyLexer.LBRACK:
+                case GroovyLexer.LBRACE:
+                    stack.push(token.type)
+                    break
+                case GroovyLexer.RPAREN:
+                case GroovyLexer.RBRACK:
+                case GroovyLexer.RBRACE:
+                    stack.poll()
+                    break
+                case GroovyLexer.NL:
+                    boolean insideParens = !stack.isEmpty() && GroovyLexer.LBRACE != stack.peek()
+                    assert (insideParens ? Token.HIDDEN_CHANNEL : Token.DEFAULT_CHANNEL) == token.channel: "${token.line}:${token.charPositionInLine}"
+                    break
+            }
+        }
+    }
+
+    private static List<Token> tokens(String text) {
+        CommonTokenStream tokenStream = new CommonTokenStream(new GroovyLangLexer(StringCharStream.create(text, 'Test.groovy')))
+        tokenStream.fill()
+
+        return tokenStream.getTokens()
+    }
+
+    private static List<String> describe(List<Token> tokenList) {
+        return tokenList.collect { Token token ->
+            "${token.type}:${token.channel}:${token.text}:${token.startIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+    }
+}
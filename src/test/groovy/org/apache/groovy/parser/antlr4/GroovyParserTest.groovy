@@ -20,17 +20,30 @@ package org.apache.groovy.parser.antlr4
 
 import groovy.transform.CompileDynamic
 import groovy.transform.CompileStatic
+import org.apache.groovy.parser.AbstractParser
+import org.apache.groovy.parser.Antlr4Parser
 import org.apache.groovy.parser.antlr4.util.ASTComparatorCategory
 import org.codehaus.groovy.ast.ClassNode
 import org.codehaus.groovy.ast.FieldNode
+import org.codehaus.groovy.ast.InnerClassNode
 import org.codehaus.groovy.ast.MethodNode
+import org.codehaus.groovy.ast.ModuleNode
 import org.codehaus.groovy.ast.Parameter
 import org.codehaus.groovy.ast.PropertyNode
+import org.codehaus.groovy.ast.expr.ClosureExpression
 import org.codehaus.groovy.ast.stmt.AssertStatement
+import org.codehaus.groovy.ast.stmt.BlockStatement
 import org.codehaus.groovy.ast.stmt.ExpressionStatement
+import org.codehaus.groovy.control.CompilationFailedException
 import org.codehaus.groovy.control.CompilerConfiguration
 import org.codehaus.groovy.syntax.Token
 
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+
 import static org.apache.groovy.parser.antlr4.TestUtils.doRunAndTest
 import static org.apache.groovy.parser.antlr4.TestUtils.doRunAndTestAntlr4
 import static org.apache.groovy.parser.antlr4.TestUtils.doTest
@@ -463,4 +476,174 @@ class GroovyParserTest extends GroovyTestCase {
     void "test groovy core - GROOVY-9522"() {
         doTest('bugs/BUG-GROOVY-9522.groovy');
     }
+
+    void "test parse all files in parallel"() {
+        List<String> pathList = ['core/ClassDeclaration_01.groovy', 'core/Closure_01.groovy', 'core/GString_01.groovy']
+        List<Path> paths = pathList.collect { String path -> Paths.get("$TestUtils.RESOURCES_PATH/$path") }
+        AbstractParser antlr4Parser = new Antlr4Parser()
+
+        Map<Path, CompletableFuture<ModuleNode>> result = antlr4Parser.parseAll(paths)
+
+        assert paths == new ArrayList<>(result.keySet())
+        paths.each { Path path ->
+            TestUtils.assertAST(result[path].join(), antlr4Parser.parse(path.toFile()), ASTComparatorCategory.DEFAULT_CONFIGURATION)
+        }
+    }
+
+    void "test parse all files with failures and duplicates"() {
+        Path path = Paths.get("$TestUtils.RESOURCES_PATH/core/ClassDeclaration_01.groovy")
+        Path failPath = Paths.get("$TestUtils.RESOURCES_PATH/fail/AbstractMethod_01x.groovy")
+        AbstractParser antlr4Parser = new Antlr4Parser()
+
+        Map<Path, CompletableFuture<ModuleNode>> result = antlr4Parser.parseAll([path, failPath])
+
+        assert null != result[path].join()
+        try {
+            result[failPath].get()
+            fail('The future should complete exceptionally')
+        } catch (ExecutionException e) {
+            assert e.cause instanceof CompilationFailedException
+        }
+
+        shouldFail(IllegalArgumentException) {
+            antlr4Parser.parseAll([path, failPath, path])
+        }
+    }
+
+    void "test parse asynchronously"() {
+        String path = 'core/ClassDeclaration_01.groovy'
+        String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+        Antlr4Parser antlr4Parser = new Antlr4Parser()
+        ExecutorService executor = Antlr4Parser.newVirtualThreadExecutor()
+
+        try {
+            ModuleNode moduleNode = antlr4Parser.parseAsync(path, text, executor).get()
+            TestUtils.assertAST(moduleNode, antlr4Parser.parse(path, text), ASTComparatorCategory.DEFAULT_CONFIGURATION)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    void "test parse asynchronously with syntax error"() {
+        ExecutorService executor = Antlr4Parser.newVirtualThreadExecutor()
+
+        try {
+            CompletableFuture<ModuleNode> future = new Antlr4Parser().parseAsync('Fail.groovy', 'def a = ', executor)
+
+            try {
+                future.get()
+                fail('The future should complete exceptionally')
+            } catch (ExecutionException e) {
+                assert e.cause instanceof CompilationFailedException
+            }
+            assert future.isCompletedExceptionally()
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    void "test signatures only"() {
+        String text = '''
+            abstract class A {
+                def f = { it * 2 }
+                A() { println 'constructor' }
+                abstract int m(String s)
+                def n(int i) { return [i].collect { it + 1 } }
+            }
+            def s(x) { x.each { println it } }
+        '''
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration(CompilerConfiguration.DEFAULT)
+        compilerConfiguration.setOptimizationOptions([(AstBuilder.SIGNATURES_ONLY): true])
+
+        ModuleNode full = new Antlr4Parser().parse('Outline.groovy', text)
+        ModuleNode outline = new Antlr4Parser(compilerConfiguration).parse('Outline.groovy', text)
+
+        assert signatures(full) == signatures(outline)
+
+        ClassNode classNode = outline.classes.find { ClassNode c -> 'A' == c.name }
+        assert null == classNode.getMethods('m')[0].code
+        assert ((BlockStatement) classNode.getMethods('n')[0].code).isEmpty()
+        assert ((BlockStatement) classNode.declaredConstructors[0].code).isEmpty()
+        assert ((BlockStatement) ((ClosureExpression) classNode.getField('f').initialExpression).code).isEmpty()
+    }
+
+    void "test declarations only"() {
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration(CompilerConfiguration.DEFAULT)
+        compilerConfiguration.setOptimizationOptions([(AstBuilder.DECLARATIONS_ONLY): true])
+
+        ['core/ClassDeclaration_01.groovy', 'core/ClassDeclaration_02.groovy', 'core/ClassDeclaration_03.groovy', 'core/Closure_01.groovy'].each { String path ->
+            File file = new File("$TestUtils.RESOURCES_PATH/$path")
+
+            assert signatures(new Antlr4Parser().parse(file)) == signatures(new Antlr4Parser(compilerConfiguration).parse(file))
+        }
+
+        String text = '''
+            class A {
+                def f = { "${it * 2}" }
+                def c = String.class
+                def n(int i) { return new Object() { def m() { i } } }
+                interface B { default String m() { 'B' } }
+            }
+            def s(x) { x.each { println it.class } }
+        '''
+        ModuleNode outline = new Antlr4Parser(compilerConfiguration).parse('Outline.groovy', text)
+
+        assert signatures(new Antlr4Parser().parse('Outline.groovy', text)) == signatures(outline)
+
+        ClassNode classNode = outline.classes.find { ClassNode c -> 'A' == c.name }
+        assert ((BlockStatement) classNode.getMethods('n')[0].code).isEmpty()
+        assert ((BlockStatement) ((ClosureExpression) classNode.getField('f').initialExpression).code).isEmpty()
+        assert ((BlockStatement) outline.classes.find { ClassNode c -> 'A$B' == c.name }.getMethods('m')[0].code).isEmpty()
+    }
+
+    void "test intern strings"() {
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration(CompilerConfiguration.DEFAULT)
+        compilerConfiguration.setOptimizationOptions([(AstBuilder.INTERN_STRINGS): true])
+
+        ['core/ClassDeclaration_01.groovy', 'core/Closure_01.groovy', 'core/GString_01.groovy'].each { String path ->
+            File file = new File("$TestUtils.RESOURCES_PATH/$path")
+
+            TestUtils.assertAST(new Antlr4Parser().parse(file), new Antlr4Parser(compilerConfiguration).parse(file), ASTComparatorCategory.DEFAULT_CONFIGURATION)
+        }
+
+        Antlr4Parser parser = new Antlr4Parser(compilerConfiguration)
+        MethodNode a = parser.parse('A.groovy', 'class A { def name(String value) { "id" } }').classes[0].getMethods('name')[0]
+        MethodNode b = parser.parse('B.groovy', 'class B { def name(String value) { "id" } }').classes[0].getMethods('name')[0]
+
+        assert a.name.is(b.name)
+        assert a.parameters[0].name.is(b.parameters[0].name)
+        assert statementText(a).is(statementText(b))
+    }
+
+    void "test string pool is bounded"() {
+        StringPool stringPool = new StringPool()
+        String first = stringPool.intern(new String('s0'))
+        for (int i = 1; i < 1 << 16; i++) {
+            stringPool.intern("s$i".toString())
+        }
+        assert 1 << 16 == stringPool.size()
+
+        // the pooled strings are still shared, but the new ones are not pooled any more
+        assert first.is(stringPool.intern(new String('s0')))
+        String extra = new String('extra')
+        assert extra.is(stringPool.intern(extra))
+        assert 1 << 16 == stringPool.size()
+    }
+
+    @CompileDynamic
+    private static String statementText(MethodNode methodNode) {
+        return ((BlockStatement) methodNode.code).statements[0].expression.value
+    }
+
+    /**
+     * The signatures of the named classes, the anonymous inner classes are defined in the bodies
+     */
+    private static List<String> signatures(ModuleNode moduleNode) {
+        return moduleNode.classes.findAll { ClassNode classNode -> !(classNode instanceof InnerClassNode) || !((InnerClassNode) classNode).isAnonymous() }.collectMany { ClassNode classNode ->
+            classNode.fields.collect { FieldNode field -> "${classNode.name}.${field.name}:${field.type.name}".toString() } +
+                    (classNode.methods + (List<MethodNode>) classNode.declaredConstructors).collect { MethodNode method ->
+                        "${classNode.name}.${method.name}(${method.parameters.collect { Parameter p -> p.type.name }.join(',')}):${method.returnType.name}:${method.modifiers}".toString()
+                    }
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CommonTokenStream
+import org.antlr.v4.runtime.Token
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+
+/**
+ * Test streaming the tokens without parsing
+ */
+@CompileStatic
+class GroovyTokenizerTest extends GroovyTestCase {
+    void "test same tokens as token stream"() {
+        ['core/ClassDeclaration_01.groovy', 'core/GString_01.groovy', 'core/Comments_01.groovy'].each { String path ->
+            String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+            GroovyTokenizer tokenizer = new GroovyTokenizer(text, path)
+
+            List<String> expected = tokens(text, path)
+
+            List<String> handled = []
+            tokenizer.tokenize { int type, int channel, int startIndex, int stopIndex, int line, int column ->
+                handled << "${type}:${channel}:${startIndex}:${stopIndex}:${line}:${column}".toString()
+            }
+            assert expected == handled
+
+            assert expected == tokenizer.collect { Token token ->
+                "${token.type}:${token.channel}:${token.startIndex}:${token.stopIndex}:${token.line}:${token.charPositionInLine}".toString()
+            }
+        }
+    }
+
+    void "test iterator lexes no token ahead"() {
+        Iterator<Token> iterator = new GroovyTokenizer('a 09', 'Test.groovy').iterator()
+
+        // the invalid octal number is not lexed until the next token is requested
+        assert 'a' == iterator.next().text
+        shouldFail(GroovySyntaxError) {
+            iterator.hasNext()
+        }
+    }
+
+    void "test symbolic name"() {
+        Token token = new GroovyTokenizer('def a', 'Test.groovy').iterator().next()
+
+        assert 'DEF' == GroovyTokenizer.getSymbolicName(token.type)
+    }
+
+    private static List<String> tokens(String text, String path) {
+        CommonTokenStream tokenStream = new CommonTokenStream(new GroovyLangLexer(StringCharStream.create(text, path)))
+        tokenStream.fill()
+
+        return tokenStream.getTokens().findAll { Token token -> Token.EOF != token.type }.collect { Token token ->
+            "${token.type}:${token.channel}:${token.startIndex}:${token.stopIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CommonTokenStream
+import org.antlr.v4.runtime.Token
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+
+/**
+ * Test re-lexing the edited source code incrementally
+ */
+@CompileStatic
+class IncrementalLexerTest extends GroovyTestCase {
+    private static final List<String> PATHS = ['core/ClassDeclaration_01.groovy', 'core/Closure_01.groovy', 'core/GString_01.groovy', 'core/Comments_01.groovy']
+    private static final List<String> SNIPPETS = ['a', ' ', '\n', '(', ')', '{', '}', '[', ']', '"', '\'', '/', '/*', '*/', '$', '${', '"""', 'def x = 1\n', '// c\n', '.', '123']
+
+    void "test same tokens as lexing from scratch"() {
+        Random random = new Random(42)
+
+        PATHS.each { String path ->
+            IncrementalLexer lexer = new IncrementalLexer(new File("$TestUtils.RESOURCES_PATH/$path").text, path)
+
+            200.times {
+                String text = lexer.text
+                int offset = random.nextInt(text.length() + 1)
+                int length = random.nextInt(Math.min(4, text.length() - offset) + 1)
+                String replacement = random.nextBoolean() ? SNIPPETS[random.nextInt(SNIPPETS.size())] : ''
+                String newText = text.substring(0, offset) + replacement + text.substring(offset + length)
+
+                List<String> expected
+                try {
+                    expected = tokens(newText, path)
+                } catch (Exception | GroovySyntaxError ignored) {
+                    return // the edited text can not be lexed
+                }
+
+                List<String> previous = describe(lexer.tokens)
+                IncrementalLexer.TokenChange change = lexer.edit(offset, length, replacement)
+
+                assert newText == lexer.text
+                assert expected == describe(lexer.tokens)
+
+                // applying the change to the previous tokens results in the same tokens except the moved ones
+                List<String> changed = previous.subList(0, change.startIndex) + describe(change.tokens)
+                assert changed == expected.subList(0, change.startIndex + change.tokens.size())
+                assert previous.size() - change.removedCount + change.tokens.size() == expected.size()
+            }
+        }
+    }
+
+    void "test only the changed tokens are returned"() {
+        String text = 'def a = 1\n' * 100
+        IncrementalLexer lexer = new IncrementalLexer(text, 'Test.groovy')
+
+        IncrementalLexer.TokenChange change = lexer.edit(text.indexOf('a = 1', 500), 1, 'abc')
+
+        // the tokens following the edited identifier on the same line are moved to other columns rather than re-lexed
+        assert 1 == change.removedCount
+        assert ['abc'] == change.tokens*.text
+        assert tokens(lexer.text, 'Test.groovy') == describe(lexer.tokens)
+    }
+
+    void "test edit changing the lexer mode"() {
+        String text = "def a = 1 // '''\n" * 100
+        IncrementalLexer lexer = new IncrementalLexer(text, 'Test.groovy')
+
+        // the triple quotes of the first two lines become a string literal
+        IncrementalLexer.TokenChange change = lexer.edit(10, 3, '')
+
+        assert tokens(lexer.text, 'Test.groovy') == describe(lexer.tokens)
+        assert change.tokens.size() < 10
+    }
+
+    private static List<String> tokens(String text, String path) {
+        CommonTokenStream tokenStream = new CommonTokenStream(new GroovyLangLexer(StringCharStream.create(text, path)))
+        tokenStream.fill()
+
+        return describe(tokenStream.getTokens())
+    }
+
+    private static List<String> describe(List<Token> tokens) {
+        return tokens.collect { Token token ->
+            "${token.type}:${token.channel}:${token.text}:${token.startIndex}:${token.stopIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+    }
+}
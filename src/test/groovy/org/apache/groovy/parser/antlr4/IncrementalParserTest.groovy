@@ -0,0 +1,170 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.Token
+import org.apache.groovy.parser.antlr4.internal.TextReaderSource
+import org.apache.groovy.parser.antlr4.util.ASTComparatorCategory
+import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.ast.MethodNode
+import org.codehaus.groovy.ast.ModuleNode
+import org.codehaus.groovy.control.CompilationFailedException
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.ErrorCollector
+import org.codehaus.groovy.control.SourceUnit
+
+/**
+ * Test re-parsing the edited source code incrementally
+ */
+@CompileStatic
+class IncrementalParserTest extends GroovyTestCase {
+    private static final String CLASS_TEXT = 'package p\n\nclass A {\n' + (0..<20).collect { int i -> "    def m${i}(x) {\n        println x + ${i}\n    }\n".toString() }.join('\n') + '}\n'
+    private final CompilerConfiguration configuration = new CompilerConfiguration(CompilerConfiguration.DEFAULT)
+
+    void "test edit inside a method body"() {
+        IncrementalParser parser = new IncrementalParser(CLASS_TEXT, 'A.groovy', configuration)
+
+        edit(parser, parser.text.indexOf('x + 5'), 5, 'x * 5 + 1', true)
+        edit(parser, parser.text.indexOf('x + 7'), 0, 'x\n        println ', true) // lines of the following methods are moved
+        edit(parser, parser.text.indexOf('x + 19'), 6, '{ it -> x }', true)
+    }
+
+    void "test edit across declarations"() {
+        IncrementalParser parser = new IncrementalParser(CLASS_TEXT, 'A.groovy', configuration)
+
+        edit(parser, parser.text.indexOf('def m3'), 3, 'void', true) // the first token of a member, so the class is re-parsed
+        edit(parser, parser.text.indexOf('x + 4'), 0, 'x }\n    def n(y) { ', true) // split one method into two
+        edit(parser, parser.text.indexOf('package p'), 9, 'package q', false)
+        edit(parser, parser.text.indexOf('x + 6'), 0, '1\n', true)
+    }
+
+    void "test edit inside a script statement"() {
+        String text = (0..<20).collect { int i -> "def a${i} = [${i}].collect { it * 2 }\n".toString() }.join('')
+        IncrementalParser parser = new IncrementalParser(text, 'Script.groovy', configuration)
+
+        edit(parser, parser.text.indexOf('it * 2', parser.text.indexOf('a10')), 6, 'it.toString()', true)
+        edit(parser, parser.text.indexOf('[11]'), 4, '[11, 12]', true)
+    }
+
+    void "test edit with syntax error"() {
+        IncrementalParser parser = new IncrementalParser(CLASS_TEXT, 'A.groovy', configuration)
+
+        shouldFail(CompilationFailedException) {
+            parser.edit(parser.text.indexOf('x + 5'), 5, 'x +* 5')
+        }
+
+        // the whole source code is parsed after the failure
+        edit(parser, parser.text.indexOf('x +* 5'), 6, 'x + 5', false)
+    }
+
+    void "test module node is built once for a series of edits"() {
+        IncrementalParser parser = new IncrementalParser(CLASS_TEXT, 'A.groovy', configuration)
+        ModuleNode moduleNode = parser.moduleNode
+
+        assert moduleNode.is(parser.moduleNode)
+
+        parser.edit(parser.text.indexOf('x + 5'), 5, 'x * 5')
+        parser.edit(parser.text.indexOf('x + 6'), 5, 'x * 6')
+
+        assert !moduleNode.is(parser.moduleNode)
+        TestUtils.assertAST(parser.moduleNode, parse(parser.text, 'A.groovy'), ASTComparatorCategory.DEFAULT_CONFIGURATION)
+    }
+
+    void "test spliced parse trees over corpus sample"() {
+        List<Tuple2<String, String>> sample = TestUtils.corpusSample
+
+        // every edit is checked against a full parse, so a quarter of the sample is enough
+        int count = 0
+        for (int i = 0; i < sample.size(); i += 4) {
+            count += checkEdits(sample[i].v1, sample[i].v2)
+        }
+
+        assert count > 0
+    }
+
+    /**
+     * Rename some identifiers one by one, and check the module node against the one of a full parse
+     *
+     * @return the count of edits re-parsed incrementally
+     */
+    private int checkEdits(String name, String text) {
+        IncrementalParser parser
+        List<Token> identifiers
+        try {
+            parser = new IncrementalParser(text, name, configuration)
+            identifiers = new IncrementalLexer(text, name).tokens.findAll { Token token -> GroovyLexer.Identifier == token.type }
+        } catch (CompilationFailedException | GroovySyntaxError ignored) {
+            return 0 // not the concern of incremental parsing
+        }
+
+        int result = 0
+        int offsetDelta = 0 // the offsets of the tokens are the ones before renaming
+        for (int i = 1; i <= 3 && !identifiers.isEmpty(); i++) {
+            Token identifier = identifiers[(identifiers.size() * i).intdiv(4) as int]
+            int offset = text.offsetByCodePoints(0, identifier.stopIndex + 1) + offsetDelta
+
+            ModuleNode expected
+            try {
+                expected = parse(parser.text.substring(0, offset) + '_' + parser.text.substring(offset), name)
+            } catch (CompilationFailedException ignored) {
+                break
+            }
+
+            parser.edit(offset, 0, '_')
+            offsetDelta++
+            if (parser.isReparsed()) {
+                result++
+            }
+
+            TestUtils.assertAST(parser.moduleNode, expected, ASTComparatorCategory.DEFAULT_CONFIGURATION)
+            assert positions(expected) == positions(parser.moduleNode)
+        }
+
+        return result
+    }
+
+    private void edit(IncrementalParser parser, int offset, int length, String replacement, boolean reparsed) {
+        parser.edit(offset, length, replacement)
+
+        assert reparsed == parser.isReparsed()
+
+        ModuleNode moduleNode = parser.moduleNode
+        ModuleNode expected = parse(parser.text, moduleNode.context.name)
+        TestUtils.assertAST(moduleNode, expected, ASTComparatorCategory.DEFAULT_CONFIGURATION)
+        assert positions(expected) == positions(moduleNode)
+    }
+
+    private ModuleNode parse(String text, String name) {
+        SourceUnit sourceUnit = new SourceUnit(name, new TextReaderSource(text, configuration), configuration, new GroovyClassLoader(), new ErrorCollector(configuration))
+
+        return new AstBuilder(sourceUnit, false, false).buildAST()
+    }
+
+    private static List<String> positions(ModuleNode moduleNode) {
+        List<String> result = []
+        for (ClassNode classNode : moduleNode.classes) {
+            for (MethodNode methodNode : classNode.methods) {
+                result << "${classNode.name}.${methodNode.name}:${methodNode.lineNumber}:${methodNode.columnNumber}:${methodNode.lastLineNumber}:${methodNode.lastColumnNumber}".toString()
+            }
+        }
+
+        return result
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.apache.groovy.parser.Antlr4Parser
+import org.apache.groovy.parser.antlr4.util.ASTComparatorCategory
+import org.codehaus.groovy.ast.ModuleNode
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.syntax.SyntaxException
+
+/**
+ * Test that resuming LL mode from the top-level declaration where SLL mode failed gives the same results
+ * as parsing the whole source in LL mode
+ */
+@CompileStatic
+class LlResumerTest extends GroovyTestCase {
+    void "test the bundled sources"() {
+        assert TestUtils.checkCorpusSample { String name, String text -> check(name, text) } > 0
+    }
+
+    void "test failure outside top-level declarations"() {
+        // the SLL failure is inside the package declaration, so the whole source is parsed in LL mode
+        assertSameSyntaxError '''
+            package a.b.
+
+            class A {}
+        '''
+    }
+
+    void "test failure inside top-level member"() {
+        // the resumed LL parse fails, which is reported without parsing the whole source again
+        assertSameSyntaxError '''
+            class A {
+                def m1() {
+                    println 'hello'
+                }
+
+                def m2() {
+                    def a =
+                }
+            }
+        '''
+    }
+
+    void "test failure inside script statement"() {
+        assertSameSyntaxError '''
+            def a = 1
+            println a
+            println(a,
+        '''
+    }
+
+    /**
+     * @return 1 if the source is parsed successfully, 0 otherwise
+     */
+    private static int check(String name, String text) {
+        ModuleNode expected = new Antlr4Parser().parse(name, text)
+        ModuleNode resumed = new Antlr4Parser(createConfiguration(true)).parse(name, text)
+
+        if (null == expected) {
+            assert null == resumed
+            return 0
+        }
+
+        TestUtils.assertAST(resumed, expected, ASTComparatorCategory.DEFAULT_CONFIGURATION)
+
+        return 1
+    }
+
+    private static void assertSameSyntaxError(String text) {
+        SyntaxException expected = TestUtils.parseAndFail(text, createConfiguration(false))
+        SyntaxException resumed = TestUtils.parseAndFail(text, createConfiguration(true))
+
+        assert [expected.message, expected.line, expected.startColumn] == [resumed.message, resumed.line, resumed.startColumn]
+    }
+
+    private static CompilerConfiguration createConfiguration(boolean llResume) {
+        CompilerConfiguration configuration = new CompilerConfiguration(CompilerConfiguration.DEFAULT)
+        configuration.setOptimizationOptions([(AstBuilder.LL_RESUME): llResume])
+
+        return configuration
+    }
+}
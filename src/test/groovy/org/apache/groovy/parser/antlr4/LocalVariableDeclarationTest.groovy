@@ -0,0 +1,145 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CommonTokenStream
+import org.antlr.v4.runtime.Token
+import org.antlr.v4.runtime.TokenStream
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+import org.codehaus.groovy.ast.ModifierNode
+
+
+import static org.apache.groovy.parser.antlr4.GroovyParser.ASSIGN
+import static org.apache.groovy.parser.antlr4.GroovyParser.BuiltInPrimitiveType
+import static org.apache.groovy.parser.antlr4.GroovyParser.DOT
+import static org.apache.groovy.parser.antlr4.GroovyParser.LBRACK
+import static org.apache.groovy.parser.antlr4.GroovyParser.LT
+
+/**
+ * Test that the local variable declaration predicate memoized by the parser gives the same results as
+ * {@link SemanticPredicates#isInvalidLocalVariableDeclaration(TokenStream)}, and as the previous implementation,
+ * at every token of the bundled corpora
+ */
+@CompileStatic
+class LocalVariableDeclarationTest extends GroovyTestCase {
+    private static final int[] MODIFIER_ARRAY = ModifierNode.MODIFIER_OPCODE_MAP.keySet().collect { Integer i -> i.intValue() }.sort() as int[]
+
+    void "test the memoized predicate of the bundled sources"() {
+        assert TestUtils.checkCorpusSample { String name, String text -> check(name, text) } > 0
+    }
+
+    void "test memoized results are kept per token index"() {
+        String text = 'a b\nint c = 1\nfoo.bar baz\nString s\n'
+        CommonTokenStream tokenStream = createTokenStream(text, 'Test.groovy')
+        GroovyLangParser parser = new GroovyLangParser(tokenStream)
+
+        List<Boolean> results = [0, 3, 8, 13].collect { int index ->
+            tokenStream.seek(index)
+            assert index == tokenStream.LT(1).tokenIndex
+            parser.isInvalidLocalVariableDeclaration()
+        }
+        assert [true, false, true, false] == results
+
+        // the cached results are returned in reverse order too
+        assert [false, true, false, true] == [13, 8, 3, 0].collect { int index ->
+            tokenStream.seek(index)
+            parser.isInvalidLocalVariableDeclaration()
+        }
+    }
+
+    void "test memoized results are cleared when the input stream is replaced"() {
+        CommonTokenStream tokenStream = createTokenStream('a b\n', 'Test.groovy')
+        GroovyLangParser parser = new GroovyLangParser(tokenStream)
+        assert parser.isInvalidLocalVariableDeclaration()
+
+        parser.inputStream = createTokenStream('int c\n', 'Test.groovy')
+        assert !parser.isInvalidLocalVariableDeclaration()
+    }
+
+    /**
+     * @return the number of the checked tokens
+     */
+    private static int check(String name, String text) {
+        CommonTokenStream tokenStream
+        try {
+            tokenStream = createTokenStream(text, name)
+        } catch (Exception | GroovySyntaxError ignored) {
+            return 0 // the source can not be lexed
+        }
+
+        List<Integer> indexes = tokenStream.tokens.findAll { Token token -> Token.DEFAULT_CHANNEL == token.channel && Token.EOF != token.type }*.tokenIndex
+        GroovyLangParser parser = new GroovyLangParser(tokenStream)
+
+        // the checks from the last token grow the memo at once, and the ones from the first token hit the memo
+        for (int index : indexes.reverse() + indexes) {
+            tokenStream.seek(index)
+
+            boolean expected = SemanticPredicates.isInvalidLocalVariableDeclaration(tokenStream)
+            assert expected == parser.isInvalidLocalVariableDeclaration(): "$name: ${tokenStream.LT(1)}"
+            assert expected == isInvalidLocalVariableDeclaration(tokenStream): "$name: ${tokenStream.LT(1)}"
+        }
+
+        return indexes.size()
+    }
+
+    private static CommonTokenStream createTokenStream(String text, String name) {
+        CommonTokenStream tokenStream = new CommonTokenStream(new GroovyLangLexer(StringCharStream.create(text, name)))
+        tokenStream.fill()
+
+        return tokenStream
+    }
+
+    /**
+     * The previous implementation, which gets the text of the token before checking the token types
+     */
+    private static boolean isInvalidLocalVariableDeclaration(TokenStream ts) {
+        int index = 2
+        Token token
+        int tokenType
+        int tokenType2 = ts.LT(index).getType()
+        int tokenType3
+
+        if (DOT == tokenType2) {
+            int tokeTypeN = tokenType2
+
+            do {
+                index = index + 2
+                tokeTypeN = ts.LT(index).getType()
+            } while (DOT == tokeTypeN)
+
+            if (LT == tokeTypeN || LBRACK == tokeTypeN) {
+                return false
+            }
+
+            index = index - 1
+            tokenType2 = ts.LT(index + 1).getType()
+        } else {
+            index = 1
+        }
+
+        token = ts.LT(index)
+        tokenType = token.getType()
+        tokenType3 = ts.LT(index + 2).getType()
+
+        return !(BuiltInPrimitiveType == tokenType || Arrays.binarySearch(MODIFIER_ARRAY, tokenType) >= 0) &&
+                Character.isLowerCase(token.getText().codePointAt(0)) &&
+                !(ASSIGN == tokenType3 || (LT == tokenType2 || LBRACK == tokenType2))
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CharStream
+import org.antlr.v4.runtime.CharStreams
+import org.antlr.v4.runtime.Token
+import org.antlr.v4.runtime.misc.Interval
+import org.apache.groovy.parser.antlr4.internal.MappedFileCharStream
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ * Test the char stream decoding the memory-mapped UTF-8 file lazily
+ */
+@CompileStatic
+class MappedFileCharStreamTest extends GroovyTestCase {
+    private static final String TEXT = '''\
+def ascii = 'abc'
+def latin = 'äöü'
+def cjk = '中文'
+def emoji = '😀😁'
+'''
+
+    void "test same tokens as code point char stream"() {
+        ['core/ClassDeclaration_01.groovy', 'core/GString_01.groovy'].each { String path ->
+            String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+            assert tokenize(open(text, false)) == tokenize(CharStreams.fromString(text, path))
+        }
+
+        assert tokenize(open(TEXT, true)) == tokenize(CharStreams.fromString(TEXT, 'Test.groovy'))
+    }
+
+    void "test random access"() {
+        String text = TEXT * 300 // more than one checkpoint
+        CharStream expected = CharStreams.fromString(text, 'Test.groovy')
+        CharStream charStream = open(text, true)
+
+        assert expected.size() == charStream.size()
+
+        Random random = new Random(42)
+        1000.times {
+            int index = random.nextInt(expected.size() + 1)
+            expected.seek(index)
+            charStream.seek(index)
+
+            assert index == charStream.index()
+            (-3..3).each { int i ->
+                assert expected.LA(i) == charStream.LA(i)
+            }
+
+            int stop = index + random.nextInt(64)
+            assert expected.getText(Interval.of(index, stop)) == charStream.getText(Interval.of(index, stop))
+        }
+    }
+
+    void "test malformed bytes"() {
+        byte[] bytes = [0x61, 0x80, 0xE4, 0xB8, 0x62, 0xF0, 0x9F, 0x98, 0x80, 0x63] as byte[]
+        CharStream charStream = open(bytes)
+
+        assert [0x61, 0xFFFD, 0xFFFD, 0x62, 0x1F600, 0x63] == (1..6).collect { int i -> charStream.LA(i) }
+        assert 6 == charStream.size()
+
+        charStream.seek(6)
+        assert [0x63, 0x1F600, 0x62, 0xFFFD, 0xFFFD, 0x61] == (1..6).collect { int i -> charStream.LA(-i) }
+    }
+
+    void "test file too big to map"() {
+        Path path = Files.createTempFile('MappedFileCharStreamTest', '.groovy')
+        try {
+            // sparse, so no disk space is taken actually
+            new RandomAccessFile(path.toFile(), 'rw').withCloseable { RandomAccessFile raf ->
+                raf.setLength(Integer.MAX_VALUE + 1L)
+            }
+
+            shouldFail(IOException) {
+                MappedFileCharStream.open(path, 'Test.groovy')
+            }
+        } finally {
+            Files.delete(path)
+        }
+    }
+
+    private static CharStream open(String text, boolean withBom) {
+        def baos = new ByteArrayOutputStream()
+        if (withBom) {
+            baos.write([0xEF, 0xBB, 0xBF] as byte[])
+        }
+        baos.write(text.getBytes(StandardCharsets.UTF_8))
+
+        return open(baos.toByteArray())
+    }
+
+    private static CharStream open(byte[] bytes) {
+        Path path = Files.createTempFile('MappedFileCharStreamTest', '.groovy')
+        path.toFile().deleteOnExit()
+        Files.write(path, bytes)
+
+        return MappedFileCharStream.open(path, 'Test.groovy')
+    }
+
+    private static List<String> tokenize(CharStream charStream) {
+        List<String> result = []
+        GroovyLangLexer lexer = new GroovyLangLexer(charStream)
+        for (Token token = lexer.nextToken(); Token.EOF != token.type; token = lexer.nextToken()) {
+            result << "${token.type}:${token.text}:${token.startIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+
+        return result
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileDynamic
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CharStream
+import org.antlr.v4.runtime.CharStreams
+
+import java.util.regex.Pattern
+
+/**
+ * Test the lexer predicates against their previous regex based implementation
+ */
+@CompileStatic
+class SemanticPredicatesTest extends GroovyTestCase {
+    private static final int CR = 13
+    private static final int LF = 10
+    private static final int DOLLAR = 36
+    private static final Pattern NONSPACES_PATTERN = Pattern.compile("\\S+?")
+    private static final Pattern LETTER_AND_LEFTCURLY_PATTERN = Pattern.compile("[a-zA-Z_{]")
+    private static final Pattern NONSURROGATE_PATTERN = Pattern.compile("[^\u0000-\u007F\uD800-\uDBFF]")
+    private static final Pattern SURROGATE_PAIR1_PATTERN = Pattern.compile("[\uD800-\uDBFF]")
+    private static final Pattern SURROGATE_PAIR2_PATTERN = Pattern.compile("[\uDC00-\uDFFF]")
+
+    void "test all the chars"() {
+        for (int c = 0; c <= 0xFFFF; c++) {
+            String text = String.valueOf((char) c)
+
+            check(codeUnits(text))
+            check(codeUnits(text + 'a'))
+            check(codeUnits(' \t' + text + '\n'))
+            check(CharStreams.fromString(text))
+        }
+
+        check(CharStreams.fromString(''))
+    }
+
+    void "test surrogate pairs"() {
+        for (int high = Character.MIN_HIGH_SURROGATE; high <= Character.MAX_HIGH_SURROGATE; high++) {
+            for (int low = Character.MIN_LOW_SURROGATE; low <= Character.MAX_LOW_SURROGATE; low++) {
+                String text = new String([(char) high, (char) low] as char[])
+
+                check(codeUnits(text))
+                if (low % 64 == 0) {
+                    check(CharStreams.fromString(text))
+                }
+            }
+        }
+
+        // truncated code points, e.g. U+10020 is truncated to a space
+        [0x10020, 0x10024, 0x10041, 0x1D400, 0x2F800].each { int codePoint ->
+            check(CharStreams.fromString(new String(Character.toChars(codePoint))))
+        }
+    }
+
+    private static void check(CharStream cs) {
+        assert isFollowedByWhiteSpaces(cs) == SemanticPredicates.isFollowedByWhiteSpaces(cs)
+        assert isFollowedByJavaLetterInGString(cs) == SemanticPredicates.isFollowedByJavaLetterInGString(cs)
+    }
+
+    /**
+     * A char stream whose symbols are the chars of the text rather than code points
+     */
+    @CompileDynamic
+    private static CharStream codeUnits(String text) {
+        return [LA: { int i -> i > text.length() ? CharStream.EOF : (int) text.charAt(i - 1) }] as CharStream
+    }
+
+    private static boolean isFollowedByWhiteSpaces(CharStream cs) {
+        for (int index = 1, c = cs.LA(index); !(CR == c || LF == c || CharStream.EOF == c); index++, c = cs.LA(index)) {
+            if (NONSPACES_PATTERN.matcher(String.valueOf((char) c)).matches()) {
+                return false
+            }
+        }
+
+        return true
+    }
+
+    private static boolean isFollowedByJavaLetterInGString(CharStream cs) {
+        int c1 = cs.LA(1)
+
+        if (DOLLAR == c1) {
+            return false
+        }
+
+        String str1 = String.valueOf((char) c1)
+
+        if (LETTER_AND_LEFTCURLY_PATTERN.matcher(str1).matches()) {
+            return true
+        }
+
+        if (NONSURROGATE_PATTERN.matcher(str1).matches() && Character.isJavaIdentifierPart(c1)) {
+            return true
+        }
+
+        int c2 = cs.LA(2)
+        String str2 = String.valueOf((char) c2)
+
+        return SURROGATE_PAIR1_PATTERN.matcher(str1).matches() &&
+                SURROGATE_PAIR2_PATTERN.matcher(str2).matches() &&
+                Character.isJavaIdentifierPart(Character.toCodePoint((char) c1, (char) c2))
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.codehaus.groovy.control.CompilationFailedException
+import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.ErrorCollector
+import org.codehaus.groovy.control.SourceUnit
+
+/**
+ * Test the report of SLL->LL fallbacks
+ */
+@CompileStatic
+class SllFallbackReportTest extends GroovyTestCase {
+    private final SllFallbackReport report = SllFallbackReport.INSTANCE
+
+    @Override
+    protected void setUp() {
+        report.reset()
+        report.setEnabled(true)
+    }
+
+    @Override
+    protected void tearDown() {
+        report.setEnabled(false)
+        report.reset()
+    }
+
+    void "test record fallback"() {
+        buildCST('Fallback.groovy', 'def a = 1\n')
+        buildCST('Fallback.groovy', 'def a = 1\ndef b = (1 + \n')
+
+        assert 2 == report.parsedCount
+        assert 1 == report.fallbackCount
+
+        SllFallbackReport.Entry entry = report.entries[0]
+        assert 1 == entry.count
+        assert entry.ruleName
+        assert 1 == entry.samples.size()
+        assert entry.samples[0].startsWith('Fallback.groovy:')
+
+        def writer = new StringWriter()
+        report.writeTo(writer)
+        assert writer.toString().startsWith('SLL->LL fallbacks: 1 of 2 parses')
+    }
+
+    private static void buildCST(String name, String text) {
+        CompilerConfiguration configuration = CompilerConfiguration.DEFAULT
+        SourceUnit sourceUnit = new SourceUnit(name, text, configuration, new GroovyClassLoader(), new ErrorCollector(configuration))
+
+        try {
+            new AstBuilder(sourceUnit, false, false).buildCST()
+        } catch (CompilationFailedException ignored) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4
+
+import groovy.transform.CompileStatic
+import org.antlr.v4.runtime.CharStream
+import org.antlr.v4.runtime.CharStreams
+import org.antlr.v4.runtime.IntStream
+import org.antlr.v4.runtime.Token
+import org.antlr.v4.runtime.misc.Interval
+import org.apache.groovy.parser.antlr4.internal.StringCharStream
+
+/**
+ * Test the char stream backed by the source text
+ */
+@CompileStatic
+class StringCharStreamTest extends GroovyTestCase {
+    void "test same tokens as code point char stream"() {
+        ['core/ClassDeclaration_01.groovy', 'core/GString_01.groovy', 'core/Lambda_01x.groovy'].each { String path ->
+            String text = new File("$TestUtils.RESOURCES_PATH/$path").text
+            CharStream charStream = StringCharStream.create(text, path)
+            assert charStream instanceof StringCharStream
+
+            assert tokenize(charStream) == tokenize(CharStreams.fromString(text, path))
+        }
+    }
+
+    void "test stream operations"() {
+        CharStream charStream = StringCharStream.create('abc', 'Test.groovy')
+
+        assert 'Test.groovy' == charStream.sourceName
+        assert 3 == charStream.size()
+        assert ((int) ('a' as char)) == charStream.LA(1)
+        assert IntStream.EOF == charStream.LA(-1)
+
+        charStream.consume()
+        charStream.consume()
+        assert ((int) ('c' as char)) == charStream.LA(1)
+        assert ((int) ('b' as char)) == charStream.LA(-1)
+        assert IntStream.EOF == charStream.LA(2)
+
+        charStream.consume()
+        shouldFail(IllegalStateException) {
+            charStream.consume()
+        }
+
+        charStream.seek(1)
+        assert 1 == charStream.index()
+        assert 'bc' == charStream.getText(Interval.of(1, 5))
+    }
+
+    void "test fall back to code point char stream for surrogates"() {
+        assert !(StringCharStream.create('def s = "😀"', 'Test.groovy') instanceof StringCharStream)
+    }
+
+    private static List<String> tokenize(CharStream charStream) {
+        List<String> result = []
+        GroovyLangLexer lexer = new GroovyLangLexer(charStream)
+        for (Token token = lexer.nextToken(); Token.EOF != token.type; token = lexer.nextToken()) {
+            result << "${token.type}:${token.text}:${token.startIndex}:${token.line}:${token.charPositionInLine}".toString()
+        }
+
+        return result
+    }
+}
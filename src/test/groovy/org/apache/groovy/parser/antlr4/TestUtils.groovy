@@ -44,7 +44,11 @@ import org.codehaus.groovy.ast.stmt.IfStatement
 import org.codehaus.groovy.ast.stmt.ReturnStatement
 import org.codehaus.groovy.ast.stmt.ThrowStatement
 import org.codehaus.groovy.ast.stmt.WhileStatement
+import org.codehaus.groovy.control.CompilationFailedException
 import org.codehaus.groovy.control.CompilerConfiguration
+import org.codehaus.groovy.control.ErrorCollector
+import org.codehaus.groovy.control.SourceUnit
+import org.codehaus.groovy.syntax.SyntaxException
 import org.codehaus.groovy.syntax.Token
 
 import java.util.zip.ZipEntry
@@ -248,6 +252,85 @@ class TestUtils {
         return result;
     }
 
+    /**
+     * Every n-th groovy entry of the zip files is sampled by {@link #checkCorpusSample(Closure)}
+     */
+    private static final int CORPUS_SAMPLE_INTERVAL = 10
+    private static List<Tuple2<String, String>> corpusSample
+
+    /**
+     * The sample of the bundled sources, i.e. the groovy files except the ones expected to fail
+     * and every n-th groovy entry of the zip files, which is read once and shared by the tests
+     *
+     * @return the names and texts of the sources
+     */
+    static synchronized List<Tuple2<String, String>> getCorpusSample() {
+        if (null != corpusSample) {
+            return corpusSample
+        }
+
+        List<Tuple2<String, String>> result = []
+        new File(RESOURCES_PATH).eachFileRecurse { File file ->
+            if (file.path.contains("${File.separator}fail${File.separator}")) {
+                return
+            }
+
+            if (file.name.endsWith('.groovy')) {
+                result << new Tuple2<String, String>(file.name, file.getText('UTF-8'))
+            } else if (file.name.endsWith('.zip')) {
+                ZipFile zipFile = new ZipFile(file)
+                try {
+                    int index = 0
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries()
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement()
+                        if (entry.name.endsWith('.groovy') && 0 == index++ % CORPUS_SAMPLE_INTERVAL) {
+                            result << new Tuple2<String, String>(entry.name, zipFile.getInputStream(entry).getText('UTF-8'))
+                        }
+                    }
+                } finally {
+                    zipFile.close()
+                }
+            }
+        }
+
+        corpusSample = Collections.unmodifiableList(result)
+        return corpusSample
+    }
+
+    /**
+     * Check the sample of the bundled sources
+     *
+     * @param check takes the name and text of a source, and returns the number of the checked elements
+     * @return the total number of the checked elements
+     */
+    static int checkCorpusSample(Closure<Integer> check) {
+        int count = 0
+        for (Tuple2<String, String> source : getCorpusSample()) {
+            count += check.call(source.v1, source.v2)
+        }
+
+        return count
+    }
+
+    /**
+     * Build the CST of the source which should fail to parse
+     *
+     * @return the only syntax error reported
+     */
+    static SyntaxException parseAndFail(String text, CompilerConfiguration configuration = CompilerConfiguration.DEFAULT) {
+        SourceUnit sourceUnit = new SourceUnit('Fail.groovy', text, configuration, new GroovyClassLoader(), new ErrorCollector(configuration))
+
+        try {
+            new AstBuilder(sourceUnit, false, false).buildCST()
+        } catch (CompilationFailedException ignored) {
+            assert 1 == sourceUnit.errorCollector.errorCount
+            return sourceUnit.errorCollector.getSyntaxError(0)
+        }
+
+        throw new AssertionError('The source should fail to parse')
+    }
+
     static doRunAndShouldFail(String path) {
         assert !executeScript(path);
     }
@@ -0,0 +1,77 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.util
+
+import groovy.transform.CompileStatic
+
+import static org.apache.groovy.parser.antlr4.util.StringUtils.DOLLAR_SLASHY
+import static org.apache.groovy.parser.antlr4.util.StringUtils.NONE_SLASHY
+import static org.apache.groovy.parser.antlr4.util.StringUtils.SLASHY
+
+/**
+ * Test the single scan of escapes against the pass by pass replacement
+ */
+@CompileStatic
+class StringUtilsTest extends GroovyTestCase {
+    private static final List<Integer> SLASHY_TYPES = [NONE_SLASHY, SLASHY, DOLLAR_SLASHY]
+    private static final List<String> CHARS = ['\\', 'u', '0', '4', '7', 'A', '$', '/', '\r', '\n', 'n', '\'']
+    private static final List<String> PIECES = ['\\', '\\', '\\', 'u', '005C', '0041', '002F', '0024', '000A', '134', '12', '4', '7', '8', '$', '/', '\n', '\r', 'n', 's', '"', '\'', 'x', 'b']
+
+    void "test escapes"() {
+        assert 'a\tb\nc\'"' == StringUtils.replaceEscapes('a\\tb\\nc\\\'\\"', NONE_SLASHY)
+        assert 'A!\\u' == StringUtils.replaceEscapes('\\u0041\\41\\\\u', NONE_SLASHY)
+        assert '$ \\$' == StringUtils.replaceEscapes('\\$\\s\\\\$', NONE_SLASHY)
+        assert 'ab' == StringUtils.replaceEscapes('a\\\nb', NONE_SLASHY)
+        assert '/A\\d' == StringUtils.replaceEscapes('\\/\\u0041\\d', SLASHY)
+        assert '/$$' == StringUtils.replaceEscapes('$/$$$$', DOLLAR_SLASHY)
+    }
+
+    void "test all the short strings"() {
+        check('', 5)
+    }
+
+    void "test random strings"() {
+        Random random = new Random(42)
+
+        100000.times {
+            StringBuilder sb = new StringBuilder()
+            random.nextInt(16).times {
+                sb.append(PIECES[random.nextInt(PIECES.size())])
+            }
+
+            check(sb.toString())
+        }
+    }
+
+    private static void check(String text, int maxLength) {
+        check(text)
+
+        if (text.length() < maxLength) {
+            for (String c : CHARS) {
+                check(text + c, maxLength)
+            }
+        }
+    }
+
+    private static void check(String text) {
+        for (int slashyType : SLASHY_TYPES) {
+            assert StringUtils.replaceEscapesInPasses(text, slashyType) == StringUtils.replaceEscapes(text, slashyType)
+        }
+    }
+}